@@ -0,0 +1,106 @@
+package com.thanhnien.rss.service;
+
+import com.thanhnien.rss.model.ArticleDetail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ArticleScraperService extraction over a parsed article page. Methods that
+ * modify the document work on a clone; cloneDocument is their baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArticleExtractionBenchmark {
+
+    private static final String URL = "https://thanhnien.vn/bai-viet-so-0-185241000.htm";
+
+    private final ArticleScraperService scraper = new ArticleScraperService();
+    private String html;
+    private Document document;
+
+    @Setup
+    public void setup() {
+        ReflectionTestUtils.setField(scraper, "meterRegistry", new SimpleMeterRegistry());
+        html = Fixtures.text(Fixtures.ARTICLE_PAGE);
+        document = Jsoup.parse(html, URL);
+    }
+
+    @Benchmark
+    public Document parseHtml() {
+        return Jsoup.parse(html, URL);
+    }
+
+    @Benchmark
+    public Document cloneDocument() {
+        return document.clone();
+    }
+
+    @Benchmark
+    public ArticleDetail extractAll() {
+        return scraper.extract(URL, document.clone());
+    }
+
+    @Benchmark
+    public String extractTitle() {
+        return scraper.extractTitle(document);
+    }
+
+    @Benchmark
+    public String extractDescription() {
+        return scraper.extractDescription(document);
+    }
+
+    @Benchmark
+    public String extractContent() {
+        return scraper.extractContent(document.clone());
+    }
+
+    @Benchmark
+    public String extractAuthor() {
+        return scraper.extractAuthor(document);
+    }
+
+    @Benchmark
+    public String extractPubDate() {
+        return scraper.extractPubDate(document);
+    }
+
+    @Benchmark
+    public String extractCategory() {
+        return scraper.extractCategory(document);
+    }
+
+    @Benchmark
+    public String extractMainImage() {
+        return scraper.extractMainImage(document);
+    }
+
+    @Benchmark
+    public List<String> extractAllImages() {
+        return scraper.extractAllImages(document);
+    }
+
+    @Benchmark
+    public List<String> extractTags() {
+        return scraper.extractTags(document);
+    }
+}
@@ -0,0 +1,67 @@
+package com.thanhnien.rss.service;
+
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Description cleanup and image extraction over every entry of one feed,
+ * so one operation is the per-feed cost. regexBaseline is the two-regex
+ * mapping EntrySanitizer replaced, kept here for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntryMappingBenchmark {
+
+    private static final Pattern IMG_SRC = Pattern.compile("<img[^>]+src=[\"']([^\"']+)[\"']");
+
+    private List<String> descriptions;
+
+    @Setup
+    public void setup() throws Exception {
+        List<SyndEntry> entries = new SyndFeedInput()
+                .build(new XmlReader(new ByteArrayInputStream(Fixtures.bytes(Fixtures.CATEGORY_FEED))))
+                .getEntries();
+        descriptions = entries.stream()
+                .map(entry -> entry.getDescription().getValue())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void regexBaseline(Blackhole blackhole) {
+        for (String description : descriptions) {
+            blackhole.consume(description.replaceAll("<[^>]*>", "").trim());
+            Matcher matcher = IMG_SRC.matcher(description);
+            blackhole.consume(matcher.find() ? matcher.group(1) : null);
+        }
+    }
+
+    @Benchmark
+    public void sanitize(Blackhole blackhole) {
+        for (String description : descriptions) {
+            blackhole.consume(EntrySanitizer.sanitize(description, 0));
+        }
+    }
+}
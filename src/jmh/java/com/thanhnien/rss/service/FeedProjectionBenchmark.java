@@ -0,0 +1,58 @@
+package com.thanhnien.rss.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.RssFeed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A category feed written in full, as /category/{slug} did, against the
+ * list-page shape ?limit=5&fields=title,link,imageUrl.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedProjectionBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+    private final RssService rssService = new RssService();
+
+    private RssFeed feed;
+    private ObjectWriter projected;
+
+    @Setup
+    public void setup() throws Exception {
+        feed = new RomeRssFeedParser().parse(new ByteArrayInputStream(Fixtures.bytes(Fixtures.CATEGORY_FEED)));
+        projected = objectMapper.writer(new SimpleFilterProvider().addFilter(Article.FIELDS_FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept("title", "link", "imageUrl")));
+    }
+
+    @Benchmark
+    public byte[] fullFeed() throws Exception {
+        return objectMapper.writeValueAsBytes(feed);
+    }
+
+    @Benchmark
+    public byte[] listPage() throws Exception {
+        return projected.writeValueAsBytes(rssService.slice(feed, 0, 5));
+    }
+}
@@ -0,0 +1,33 @@
+package com.thanhnien.rss.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Checked-in thanhnien.vn fixtures from src/test/resources, shared with the tests.
+ */
+final class Fixtures {
+
+    static final String CATEGORY_FEED = "thoi-su.rss";
+    static final String ARTICLE_PAGE = "article.html";
+
+    private Fixtures() {
+    }
+
+    static byte[] bytes(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String text(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8);
+    }
+}
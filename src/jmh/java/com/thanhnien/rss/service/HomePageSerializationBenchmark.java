@@ -0,0 +1,71 @@
+package com.thanhnien.rss.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.CategorySection;
+import com.thanhnien.rss.model.HomePageData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a home page shaped like /api/rss/home-page:
+ * 20 category sections plus featured, trending and most-read lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HomePageSerializationBenchmark {
+
+    private static final int SECTIONS = 20;
+    private static final int ARTICLES_PER_SECTION = 5;
+
+    // Same filter setup as JacksonConfig: Article's field filter writes everything by default
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+    private HomePageData homePageData;
+
+    @Setup
+    public void setup() throws Exception {
+        List<Article> articles = new RomeRssFeedParser()
+                .parse(new ByteArrayInputStream(Fixtures.bytes(Fixtures.CATEGORY_FEED)))
+                .getArticles();
+
+        List<CategorySection> sections = new ArrayList<>();
+        for (int i = 0; i < SECTIONS; i++) {
+            int from = (i * ARTICLES_PER_SECTION) % (articles.size() - ARTICLES_PER_SECTION);
+            sections.add(CategorySection.builder()
+                    .categoryName("Chuyên mục " + i)
+                    .categorySlug("chuyen-muc-" + i)
+                    .articles(articles.subList(from, from + ARTICLES_PER_SECTION))
+                    .build());
+        }
+        homePageData = HomePageData.builder()
+                .featuredArticles(articles.subList(0, ARTICLES_PER_SECTION))
+                .categorySections(sections)
+                .trendingArticles(articles.subList(5, 5 + ARTICLES_PER_SECTION))
+                .mostReadArticles(articles.subList(10, 10 + ARTICLES_PER_SECTION))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeHomePage() throws Exception {
+        return objectMapper.writeValueAsBytes(homePageData);
+    }
+}
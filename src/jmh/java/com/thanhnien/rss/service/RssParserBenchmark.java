@@ -0,0 +1,46 @@
+package com.thanhnien.rss.service;
+
+import com.thanhnien.rss.model.RssFeed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feed parsing and mapping to Article, per parser implementation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RssParserBenchmark {
+
+    @Param({"rome", "stax"})
+    public String parser;
+
+    private RssFeedParser rssFeedParser;
+    private byte[] feed;
+
+    @Setup
+    public void setup() {
+        feed = Fixtures.bytes(Fixtures.CATEGORY_FEED);
+        rssFeedParser = "stax".equals(parser) ? new StaxRssFeedParser() : new RomeRssFeedParser();
+    }
+
+    @Benchmark
+    public RssFeed parseFeed() throws Exception {
+        return rssFeedParser.parse(new ByteArrayInputStream(feed));
+    }
+}
@@ -0,0 +1,136 @@
+package com.thanhnien.rss.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.ArticleDetail;
+import com.thanhnien.rss.model.RssFeed;
+import com.thanhnien.rss.service.RssService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded Caffeine caches. RSS feed entries are weighed by their
+ * approximate heap size and expire per key: top-level category feeds,
+ * subcategory feeds and ad-hoc URLs from /api/rss/fetch each get their own TTL.
+ * Scraped article details form the in-heap tier of {@code ArticleDetailCache}.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String RSS_FEED_CACHE = "rssFeed";
+    public static final String ARTICLE_DETAIL_CACHE = "articleDetail";
+
+    @Value("${rss.cache.top-level-ttl-ms:900000}")
+    private long topLevelTtlMs;
+
+    @Value("${rss.cache.sub-category-ttl-ms:1800000}")
+    private long subCategoryTtlMs;
+
+    @Value("${rss.cache.external-ttl-ms:300000}")
+    private long externalTtlMs;
+
+    @Value("${rss.cache.max-weight-bytes:67108864}")
+    private long maxWeightBytes;
+
+    @Value("${rss.article-cache.memory-ttl-ms:3600000}")
+    private long articleTtlMs;
+
+    @Value("${rss.article-cache.memory-max-bytes:33554432}")
+    private long articleMaxWeightBytes;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(RSS_FEED_CACHE, Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Object key, Object value) -> estimateBytes(value))
+                .expireAfter(new FeedExpiry())
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(ARTICLE_DETAIL_CACHE, Caffeine.newBuilder()
+                .maximumWeight(articleMaxWeightBytes)
+                .weigher((Object key, Object value) -> estimateBytes(value))
+                .expireAfterWrite(articleTtlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    private long ttlNanos(Object key) {
+        String url = String.valueOf(key);
+        if (!url.startsWith(RssService.BASE_RSS_URL)) {
+            return TimeUnit.MILLISECONDS.toNanos(externalTtlMs);
+        }
+        boolean subCategory = url.indexOf('/', RssService.BASE_RSS_URL.length()) >= 0;
+        return TimeUnit.MILLISECONDS.toNanos(subCategory ? subCategoryTtlMs : topLevelTtlMs);
+    }
+
+    /**
+     * Rough retained size of a cached value: object headers plus UTF-16 chars.
+     */
+    public static int estimateBytes(Object value) {
+        if (value instanceof ArticleDetail detail) {
+            return estimateBytes(detail);
+        }
+        if (!(value instanceof RssFeed feed)) {
+            return 64;
+        }
+        long bytes = 64 + sizeOf(feed.getTitle()) + sizeOf(feed.getDescription())
+                + sizeOf(feed.getLink()) + sizeOf(feed.getLanguage());
+        if (feed.getArticles() != null) {
+            for (Article article : feed.getArticles()) {
+                bytes += 64 + sizeOf(article.getTitle()) + sizeOf(article.getLink())
+                        + sizeOf(article.getDescription()) + sizeOf(article.getPubDate())
+                        + sizeOf(article.getImageUrl()) + sizeOf(article.getVideoUrl())
+                        + sizeOf(article.getCategory()) + sizeOf(article.getAuthor());
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static int estimateBytes(ArticleDetail detail) {
+        long bytes = 96 + sizeOf(detail.getTitle()) + sizeOf(detail.getUrl())
+                + sizeOf(detail.getDescription()) + sizeOf(detail.getContent())
+                + sizeOf(detail.getAuthor()) + sizeOf(detail.getPubDate())
+                + sizeOf(detail.getCategory()) + sizeOf(detail.getImageUrl());
+        if (detail.getImages() != null) {
+            for (String image : detail.getImages()) {
+                bytes += 8 + sizeOf(image);
+            }
+        }
+        if (detail.getTags() != null) {
+            for (String tag : detail.getTags()) {
+                bytes += 8 + sizeOf(tag);
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+
+    private class FeedExpiry implements Expiry<Object, Object> {
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return ttlNanos(key);
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return ttlNanos(key);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
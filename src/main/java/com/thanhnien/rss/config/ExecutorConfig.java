@@ -0,0 +1,88 @@
+package com.thanhnien.rss.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor for fan-out work (feed parsing, video URL extraction). Tasks on
+ * it may block on I/O but never wait for other tasks on it: with a bounded
+ * pool, a worker joining a future completed by a task queued behind it
+ * would wedge the pool. Uses a virtual thread per task when enabled and
+ * running on Java 21+, otherwise a dedicated bounded platform-thread pool,
+ * so this work never competes with the common ForkJoinPool.
+ *
+ * The same spring.threads.virtual.enabled switch moves Tomcat request
+ * handling onto virtual threads on Java 21.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    public static final String FAN_OUT_EXECUTOR = "fanOutExecutor";
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    @Value("${rss.executor.virtual-threads:${spring.threads.virtual.enabled:false}}")
+    private boolean virtualThreads;
+
+    @Value("${rss.executor.pool-size:32}")
+    private int poolSize;
+
+    @Value("${rss.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Bean(name = FAN_OUT_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService fanOutExecutor() {
+        if (virtualThreads) {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            if (executor != null) {
+                logger.info("Fan-out executor: virtual thread per task");
+                return executor;
+            }
+            logger.warn("Virtual threads requested but not available on Java {}, falling back to platform threads",
+                    Runtime.version().feature());
+        }
+
+        logger.info("Fan-out executor: {} platform threads, queue capacity {}", poolSize, queueCapacity);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                namedThreadFactory("rss-fanout-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() looked up reflectively so
+     * the project still compiles and runs on Java 17.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
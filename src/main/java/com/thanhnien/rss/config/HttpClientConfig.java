@@ -0,0 +1,29 @@
+package com.thanhnien.rss.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Single shared HTTP client for all outbound feed fetches. The JDK client
+ * keeps a connection pool, negotiates HTTP/2 over TLS and multiplexes
+ * concurrent requests to the same host over one connection.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${rss.http.connect-timeout-ms:15000}")
+    private long connectTimeoutMs;
+
+    @Bean
+    public HttpClient httpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+}
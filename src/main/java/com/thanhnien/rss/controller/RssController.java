@@ -1,14 +1,39 @@
 package com.thanhnien.rss.controller;
 
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.ArticleDetail;
 import com.thanhnien.rss.model.Category;
-import com.thanhnien.rss.model.RssFeed;
 import com.thanhnien.rss.model.HomePageData;
+import com.thanhnien.rss.model.RssFeed;
+import com.thanhnien.rss.model.SearchResult;
+import com.thanhnien.rss.model.TimelinePage;
+import com.thanhnien.rss.service.ArticleStreamService;
+import com.thanhnien.rss.service.ContentVersions;
+import com.thanhnien.rss.service.PrerenderedResponses;
 import com.thanhnien.rss.service.RssService;
+import com.thanhnien.rss.service.SearchIndex;
+import com.thanhnien.rss.service.TimelineService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/rss")
@@ -21,13 +46,44 @@ public class RssController {
     @Autowired
     private com.thanhnien.rss.service.ArticleScraperService articleScraperService;
 
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    @Autowired
+    private PrerenderedResponses prerenderedResponses;
+
+    @Autowired
+    private ArticleStreamService articleStreamService;
+
+    @Value("${rss.http-cache.feed-max-age-seconds:60}")
+    private long feedMaxAgeSeconds;
+
+    @Value("${rss.http-cache.article-max-age-seconds:600}")
+    private long articleMaxAgeSeconds;
+
     /**
-     * Get home page articles
-     * GET /api/rss/home
+     * Get home page articles, optionally only those published after since (epoch millis)
+     * GET /api/rss/home?since=...&offset=0&limit=5&fields=title,link,imageUrl
      */
     @GetMapping("/home")
-    public ResponseEntity<RssFeed> getHomeArticles() {
-        return ResponseEntity.ok(rssService.getHomeArticles());
+    public ResponseEntity<?> getHomeArticles(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RssFeed feed = rssService.getHomeArticles();
+        RssFeed page = window(feed, since, offset, limit);
+        return respond(page, fields, page == feed, acceptEncoding);
     }
 
     /**
@@ -35,8 +91,9 @@ public class RssController {
      * GET /api/rss/home-page
      */
     @GetMapping("/home-page")
-    public ResponseEntity<HomePageData> getHomePageData() {
-        return ResponseEntity.ok(rssService.getHomePageData());
+    public ResponseEntity<?> getHomePageData(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return respond(rssService.getHomePageData(), null, true, acceptEncoding);
     }
 
     /**
@@ -44,8 +101,8 @@ public class RssController {
      * GET /api/rss/article?url=...
      */
     @GetMapping("/article")
-    public ResponseEntity<com.thanhnien.rss.model.ArticleDetail> getArticleDetail(@RequestParam String url) {
-        return ResponseEntity.ok(articleScraperService.scrapeArticle(url));
+    public ResponseEntity<ArticleDetail> getArticleDetail(@RequestParam String url) {
+        return versioned(articleScraperService.scrapeArticle(url), null, articleMaxAgeSeconds);
     }
 
     /**
@@ -54,44 +111,259 @@ public class RssController {
      */
     @GetMapping("/categories")
     public ResponseEntity<List<Category>> getAllCategories() {
-        return ResponseEntity.ok(rssService.getAllCategories());
+        return versioned(rssService.getAllCategories(), null, articleMaxAgeSeconds);
     }
 
     /**
      * Get articles by category slug
-     * GET /api/rss/category/{slug}
+     * GET /api/rss/category/{slug}?since=...&offset=0&limit=5&fields=title,link,imageUrl
      */
     @GetMapping("/category/{slug}")
-    public ResponseEntity<RssFeed> getArticlesByCategory(@PathVariable String slug) {
-        return ResponseEntity.ok(rssService.getArticlesByCategory(slug));
+    public ResponseEntity<?> getArticlesByCategory(
+            @PathVariable String slug,
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RssFeed feed = rssService.getArticlesByCategory(slug);
+        RssFeed page = window(feed, since, offset, limit);
+        return respond(page, fields, page == feed, acceptEncoding);
     }
 
     /**
      * Get articles from subcategory
-     * GET /api/rss/category/{category}/{subcategory}
+     * GET /api/rss/category/{category}/{subcategory}?since=...&offset=0&limit=5&fields=...
      */
     @GetMapping("/category/{category}/{subcategory}")
-    public ResponseEntity<RssFeed> getArticlesBySubCategory(
+    public ResponseEntity<?> getArticlesBySubCategory(
             @PathVariable String category,
-            @PathVariable String subcategory) {
-        return ResponseEntity.ok(rssService.getArticlesByCategory(subcategory));
+            @PathVariable String subcategory,
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RssFeed feed = rssService.getArticlesByCategory(subcategory);
+        RssFeed page = window(feed, since, offset, limit);
+        return respond(page, fields, page == feed, acceptEncoding);
     }
 
     /**
      * Fetch RSS from custom URL
-     * GET /api/rss/fetch?url=...
+     * GET /api/rss/fetch?url=...&since=...&offset=0&limit=5&fields=...
      */
     @GetMapping("/fetch")
-    public ResponseEntity<RssFeed> fetchRss(@RequestParam String url) {
-        return ResponseEntity.ok(rssService.fetchRss(url));
+    public ResponseEntity<?> fetchRss(
+            @RequestParam String url,
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RssFeed feed = rssService.fetchRss(url);
+        RssFeed page = window(feed, since, offset, limit);
+        return respond(page, fields, page == feed, acceptEncoding);
     }
 
     /**
-     * Get all feeds from all categories
-     * GET /api/rss/all
+     * Get all feeds from all categories; offset and limit apply to each feed
+     * GET /api/rss/all?since=...&offset=0&limit=5&fields=...
      */
     @GetMapping("/all")
-    public ResponseEntity<List<RssFeed>> getAllFeeds() {
-        return ResponseEntity.ok(rssService.getAllFeeds());
+    public ResponseEntity<?> getAllFeeds(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        List<RssFeed> all = rssService.getAllFeeds();
+        List<RssFeed> feeds = all.stream()
+                .map(feed -> window(feed, since, offset, limit))
+                .collect(Collectors.toList());
+        return respond(feeds, fields, feeds.equals(all), acceptEncoding);
+    }
+
+    /**
+     * Get the latest articles across all categories, newest first
+     * GET /api/rss/timeline?limit=20&cursor=...
+     */
+    @GetMapping("/timeline")
+    public ResponseEntity<TimelinePage> getTimeline(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            TimelinePage page = timelineService.getPage(cursor, Math.max(1, Math.min(limit, 100)));
+            return versioned(page, null, feedMaxAgeSeconds);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Search already fetched articles, accent-insensitively
+     * GET /api/rss/search?q=...&offset=0&limit=20
+     */
+    @GetMapping("/search")
+    public ResponseEntity<SearchResult> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+        SearchResult result = searchIndex.search(q,
+                Math.max(0, Math.min(offset, 1000)), Math.max(1, Math.min(limit, 100)));
+        return versioned(result, null, feedMaxAgeSeconds);
+    }
+
+    /**
+     * Stream newly published articles of one or more categories as server-sent events
+     * GET /api/rss/stream?categories=thoi-su,the-gioi
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamArticles(@RequestParam List<String> categories) {
+        List<String> slugs = categories.stream()
+                .map(String::trim)
+                .filter(slug -> rssService.findCategoryBySlug(slug) != null)
+                .distinct()
+                .collect(Collectors.toList());
+        if (slugs.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(articleStreamService.subscribe(slugs));
+    }
+
+    /**
+     * Get hit/miss/eviction statistics for every cache
+     * GET /api/rss/cache-stats
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                CacheStats stats = cache.getNativeCache().stats();
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("size", cache.getNativeCache().estimatedSize());
+                entry.put("hitCount", stats.hitCount());
+                entry.put("missCount", stats.missCount());
+                entry.put("hitRate", stats.hitRate());
+                entry.put("evictionCount", stats.evictionCount());
+                entry.put("evictionWeight", stats.evictionWeight());
+                result.put(name, entry);
+            }
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 200 response carrying ETag, Last-Modified and Cache-Control. Spring
+     * answers a matching If-None-Match / If-Modified-Since with 304 from
+     * these headers without serializing the body.
+     */
+    private <T> ResponseEntity<T> versioned(T body, String variant, long maxAgeSeconds) {
+        if (isFailure(body)) {
+            return uncached(body);
+        }
+        String etag = contentVersions.etag(body, variant);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(contentVersions.lastModified(etag))
+                .cacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .body(body);
+    }
+
+    /**
+     * Full, unprojected responses come from pre-serialized bytes when
+     * rss.response.prerender is on, gzipped if the client accepts it;
+     * anything else is serialized for this request
+     */
+    private ResponseEntity<?> respond(Object body, String fields, boolean full, String acceptEncoding) {
+        if (isFailure(body)) {
+            return uncached(project(body, fields));
+        }
+        if (!full || (fields != null && !fields.isBlank()) || !prerenderedResponses.isEnabled()) {
+            return versioned(project(body, fields), fields, feedMaxAgeSeconds);
+        }
+        PrerenderedResponses.Rendered rendered = prerenderedResponses.get(body);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? rendered.gzipEtag() : rendered.etag();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(contentVersions.lastModified(etag))
+                .cacheControl(CacheControl.maxAge(feedMaxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(gzip ? rendered.gzip() : rendered.json());
+    }
+
+    /**
+     * 200 response that neither clients nor shared caches may keep, with no
+     * validators, for results that stand in for content that could not be
+     * had: they must not be served again after the upstream recovers
+     */
+    private static <T> ResponseEntity<T> uncached(T body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
+    /**
+     * Whether the body is an error or not-found placeholder, or a home page
+     * with no section fresh
+     */
+    private static boolean isFailure(Object body) {
+        if (body instanceof MappingJacksonValue wrapper) {
+            return isFailure(wrapper.getValue());
+        }
+        if (body instanceof RssFeed feed) {
+            return "Error".equals(feed.getTitle()) || "Not Found".equals(feed.getTitle());
+        }
+        if (body instanceof ArticleDetail detail) {
+            return "Error".equals(detail.getTitle());
+        }
+        if (body instanceof HomePageData data) {
+            List<String> stale = data.getStaleSections() != null ? data.getStaleSections() : List.of();
+            return stale.containsAll(List.of("featured", "trending", "most-read"))
+                    && data.getCategorySections().stream()
+                            .allMatch(section -> stale.contains(section.getCategorySlug()));
+        }
+        if (body instanceof List<?> list) {
+            return list.stream().anyMatch(RssController::isFailure);
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private RssFeed window(RssFeed feed, Long since, int offset, Integer limit) {
+        return rssService.slice(rssService.publishedSince(feed, since), offset, limit);
+    }
+
+    /**
+     * Wrap a response so its articles are written with only the requested
+     * fields (comma separated), or with all fields when none are given
+     */
+    private static MappingJacksonValue project(Object body, String fields) {
+        SimpleBeanPropertyFilter filter = fields == null || fields.isBlank()
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(Arrays.stream(fields.split(","))
+                        .map(String::trim)
+                        .collect(Collectors.toSet()));
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(Article.FIELDS_FILTER, filter));
+        return value;
     }
 }
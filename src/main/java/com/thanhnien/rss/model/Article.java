@@ -1,21 +1,26 @@
 package com.thanhnien.rss.model;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
+@Value
+@Builder(toBuilder = true)
+@Jacksonized
+@JsonFilter(Article.FIELDS_FILTER)
 public class Article {
-    private String title;
-    private String link;
-    private String description;
-    private String pubDate;
-    private String imageUrl;
-    private String videoUrl;
-    private String category;
-    private String author;
+    /** Jackson filter id used to project articles to requested fields */
+    public static final String FIELDS_FILTER = "articleFields";
+
+    String title;
+    String link;
+    String description;
+    String pubDate;
+    /** Publish time in epoch milliseconds, null when the feed has none */
+    Long publishedAt;
+    String imageUrl;
+    String videoUrl;
+    String category;
+    String author;
 }
@@ -18,6 +18,8 @@ public class ArticleDetail {
     private String content;
     private String author;
     private String pubDate;
+    /** Publish time in epoch milliseconds, null when the page has none */
+    private Long publishedAt;
     private String category;
     private String imageUrl;
     private List<String> images;
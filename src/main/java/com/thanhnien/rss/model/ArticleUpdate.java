@@ -0,0 +1,18 @@
+package com.thanhnien.rss.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleUpdate {
+    private String categorySlug;
+    /** Articles that were not in the category's previous refresh */
+    private List<Article> articles;
+}
@@ -1,18 +1,25 @@
 package com.thanhnien.rss.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
+import java.util.Collections;
 import java.util.List;
 
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
+@Value
+@Builder(toBuilder = true)
+@Jacksonized
 public class CategorySection {
-    private String categoryName;
-    private String categorySlug;
-    private List<Article> articles;
+    String categoryName;
+    String categorySlug;
+    List<Article> articles;
+
+    /** Lists are wrapped read-only, not copied, since they are views of cached feeds */
+    public static class CategorySectionBuilder {
+        public CategorySectionBuilder articles(List<Article> articles) {
+            this.articles = articles != null ? Collections.unmodifiableList(articles) : null;
+            return this;
+        }
+    }
 }
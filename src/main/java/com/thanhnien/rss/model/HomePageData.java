@@ -1,19 +1,48 @@
 package com.thanhnien.rss.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
+import java.util.Collections;
 import java.util.List;
 
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
+@Value
+@Builder(toBuilder = true)
+@Jacksonized
 public class HomePageData {
-    private List<Article> featuredArticles;
-    private List<CategorySection> categorySections;
-    private List<Article> trendingArticles;
-    private List<Article> mostReadArticles;
+    List<Article> featuredArticles;
+    List<CategorySection> categorySections;
+    List<Article> trendingArticles;
+    List<Article> mostReadArticles;
+    /** Sections served from their feed's last good copy or left out, because they missed the latency budget or failed */
+    List<String> staleSections;
+
+    /** Lists are wrapped read-only, not copied, since they are views of cached feeds */
+    public static class HomePageDataBuilder {
+        public HomePageDataBuilder featuredArticles(List<Article> featuredArticles) {
+            this.featuredArticles = featuredArticles != null ? Collections.unmodifiableList(featuredArticles) : null;
+            return this;
+        }
+
+        public HomePageDataBuilder categorySections(List<CategorySection> categorySections) {
+            this.categorySections = categorySections != null ? Collections.unmodifiableList(categorySections) : null;
+            return this;
+        }
+
+        public HomePageDataBuilder trendingArticles(List<Article> trendingArticles) {
+            this.trendingArticles = trendingArticles != null ? Collections.unmodifiableList(trendingArticles) : null;
+            return this;
+        }
+
+        public HomePageDataBuilder mostReadArticles(List<Article> mostReadArticles) {
+            this.mostReadArticles = mostReadArticles != null ? Collections.unmodifiableList(mostReadArticles) : null;
+            return this;
+        }
+
+        public HomePageDataBuilder staleSections(List<String> staleSections) {
+            this.staleSections = staleSections != null ? Collections.unmodifiableList(staleSections) : null;
+            return this;
+        }
+    }
 }
@@ -1,20 +1,29 @@
 package com.thanhnien.rss.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
+import java.util.Collections;
 import java.util.List;
 
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
+@Value
+@Builder(toBuilder = true)
+@Jacksonized
 public class RssFeed {
-    private String title;
-    private String description;
-    private String link;
-    private String language;
-    private List<Article> articles;
+    String title;
+    String description;
+    String link;
+    String language;
+    /** Name of the category the feed was requested as; null on cached feeds */
+    String category;
+    List<Article> articles;
+
+    /** Lists are wrapped read-only, not copied, since cached feeds are shared */
+    public static class RssFeedBuilder {
+        public RssFeedBuilder articles(List<Article> articles) {
+            this.articles = articles != null ? Collections.unmodifiableList(articles) : null;
+            return this;
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package com.thanhnien.rss.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResult {
+    private String query;
+    /** Number of matching articles across all pages */
+    private int total;
+    private int offset;
+    private List<Article> articles;
+}
@@ -0,0 +1,18 @@
+package com.thanhnien.rss.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelinePage {
+    private List<Article> articles;
+    /** Opaque cursor for the next page, null on the last page */
+    private String nextCursor;
+}
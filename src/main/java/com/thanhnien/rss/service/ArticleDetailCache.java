@@ -0,0 +1,176 @@
+package com.thanhnien.rss.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thanhnien.rss.config.CacheConfig;
+import com.thanhnien.rss.model.ArticleDetail;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier cache for scraped articles: the bounded in-heap articleDetail
+ * cache in front of a directory of JSON files that survives restarts.
+ * Disk entries expire by file age and the oldest files are removed once
+ * the directory grows past its byte budget.
+ */
+@Component
+public class ArticleDetailCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleDetailCache.class);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${rss.article-cache.dir:${java.io.tmpdir}/thanhnien-rss/articles}")
+    private String directory;
+
+    @Value("${rss.article-cache.disk-ttl-ms:604800000}")
+    private long diskTtlMs;
+
+    @Value("${rss.article-cache.disk-max-bytes:268435456}")
+    private long diskMaxBytes;
+
+    private Path root;
+    private Cache memory;
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        memory = cacheManager.getCache(CacheConfig.ARTICLE_DETAIL_CACHE);
+        root = Paths.get(directory);
+        Files.createDirectories(root);
+        try (Stream<Path> files = Files.list(root)) {
+            diskBytes.set(files.mapToLong(ArticleDetailCache::sizeOf).sum());
+        }
+        logger.info("Article cache at {} ({} bytes on disk)", root, diskBytes.get());
+    }
+
+    /**
+     * Look up an article, promoting disk hits into memory
+     */
+    public ArticleDetail get(String url) {
+        ArticleDetail detail = memory.get(url, ArticleDetail.class);
+        if (detail != null) {
+            return detail;
+        }
+        Path file = fileFor(url);
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            if (System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis() > diskTtlMs) {
+                delete(file);
+                return null;
+            }
+            detail = objectMapper.readValue(file.toFile(), ArticleDetail.class);
+            memory.put(url, detail);
+            return detail;
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable cached article {}: {}", file, e.getMessage());
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * Store an article in both tiers
+     */
+    public void put(String url, ArticleDetail detail) {
+        memory.put(url, detail);
+        Path file = fileFor(url);
+        try {
+            long previous = sizeOf(file);
+            Path tmp = Files.createTempFile(root, "article", ".tmp");
+            objectMapper.writeValue(tmp.toFile(), detail);
+            long written = Files.size(tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(written - previous) > diskMaxBytes) {
+                prune();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write cached article for {}: {}", url, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the oldest files until the directory is back under 90% of its budget
+     */
+    private synchronized void prune() {
+        if (diskBytes.get() <= diskMaxBytes) {
+            return;
+        }
+        long target = diskMaxBytes * 9 / 10;
+        try (Stream<Path> files = Files.list(root)) {
+            List<Path> oldestFirst = files
+                    .sorted(Comparator.comparingLong(ArticleDetailCache::lastModified))
+                    .collect(Collectors.toList());
+            for (Path file : oldestFirst) {
+                if (diskBytes.get() <= target) {
+                    break;
+                }
+                delete(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to prune article cache: {}", e.getMessage());
+        }
+    }
+
+    private void delete(Path file) {
+        long size = sizeOf(file);
+        try {
+            if (Files.deleteIfExists(file)) {
+                diskBytes.addAndGet(-size);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete cached article {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path fileFor(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return root.resolve(HexFormat.of().formatHex(hash) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.thanhnien.rss.service;
+
+import com.thanhnien.rss.model.ArticleDetail;
+
+/**
+ * Published whenever an article page has been scraped successfully
+ */
+public record ArticleScrapedEvent(ArticleDetail detail) {
+}
@@ -1,16 +1,31 @@
 package com.thanhnien.rss.service;
 
 import com.thanhnien.rss.model.ArticleDetail;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,30 +34,64 @@ public class ArticleScraperService {
     private static final Logger logger = LoggerFactory.getLogger(ArticleScraperService.class);
     private static final int TIMEOUT = 10000; // 10 seconds
 
+    // Dates shown on the page, e.g. "18/10/2024 08:30 GMT+7"
+    private static final Pattern PAGE_DATE = Pattern.compile("(\\d{1,2}/\\d{1,2}/\\d{4})\\s+(\\d{1,2}:\\d{2})(?:\\s*GMT([+-]\\d{1,2}))?");
+    private static final DateTimeFormatter PAGE_DATE_FORMAT = DateTimeFormatter.ofPattern("d/M/yyyy H:mm");
+    private static final ZoneId SITE_ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+
+    @Autowired
+    private ArticleDetailCache articleDetailCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OutboundGuard outboundGuard;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final SingleFlight<String, ArticleDetail> inFlight = new SingleFlight<>();
+
     /**
-     * Scrape full article content from URL
+     * Scrape full article content from URL, served from the article cache when
+     * possible. Concurrent misses for the same URL share one download and one parse.
      */
     public ArticleDetail scrapeArticle(String articleUrl) {
+        ArticleDetail cached = articleDetailCache.get(articleUrl);
+        if (cached != null) {
+            return cached;
+        }
+        return inFlight.call(articleUrl, () -> {
+            ArticleDetail detail = doScrapeArticle(articleUrl);
+            if (!"Error".equals(detail.getTitle())) {
+                articleDetailCache.put(articleUrl, detail);
+                eventPublisher.publishEvent(new ArticleScrapedEvent(detail));
+            }
+            return detail;
+        });
+    }
+
+    private ArticleDetail doScrapeArticle(String articleUrl) {
         try {
             logger.info("Scraping article from: {}", articleUrl);
 
-            Document doc = Jsoup.connect(articleUrl)
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                    .timeout(TIMEOUT)
-                    .get();
+            Connection.Response response = outboundGuard.call(articleUrl, () -> {
+                Timer.Sample download = Timer.start(meterRegistry);
+                Connection.Response page = Jsoup.connect(articleUrl)
+                        .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
+                        .timeout(TIMEOUT)
+                        .execute()
+                        .bufferUp();
+                download.stop(phaseTimer("download"));
+                return page;
+            });
 
-            return ArticleDetail.builder()
-                    .url(articleUrl)
-                    .title(extractTitle(doc))
-                    .description(extractDescription(doc))
-                    .content(extractContent(doc))
-                    .author(extractAuthor(doc))
-                    .pubDate(extractPubDate(doc))
-                    .category(extractCategory(doc))
-                    .imageUrl(extractMainImage(doc))
-                    .images(extractAllImages(doc))
-                    .tags(extractTags(doc))
-                    .build();
+            Timer.Sample parse = Timer.start(meterRegistry);
+            Document doc = response.parse();
+            parse.stop(phaseTimer("parse"));
+
+            return extract(articleUrl, doc);
 
         } catch (Exception e) {
             logger.error("Error scraping article from {}: {}", articleUrl, e.getMessage());
@@ -54,7 +103,38 @@ public class ArticleScraperService {
         }
     }
 
-    private String extractTitle(Document doc) {
+    /**
+     * Build an ArticleDetail from an already downloaded article page
+     */
+    ArticleDetail extract(String articleUrl, Document doc) {
+        String pubDate = phase("pubDate", () -> extractPubDate(doc));
+        return ArticleDetail.builder()
+                .url(articleUrl)
+                .title(phase("title", () -> extractTitle(doc)))
+                .description(phase("description", () -> extractDescription(doc)))
+                .content(phase("content", () -> extractContent(doc)))
+                .author(phase("author", () -> extractAuthor(doc)))
+                .pubDate(pubDate)
+                .publishedAt(phase("publishedAt", () -> extractPublishedAt(doc, pubDate)))
+                .category(phase("category", () -> extractCategory(doc)))
+                .imageUrl(phase("mainImage", () -> extractMainImage(doc)))
+                .images(phase("images", () -> extractAllImages(doc)))
+                .tags(phase("tags", () -> extractTags(doc)))
+                .build();
+    }
+
+    /**
+     * Run one scraping phase under the rss.scrape.phase timer
+     */
+    private <T> T phase(String name, Supplier<T> work) {
+        return phaseTimer(name).record(work);
+    }
+
+    private Timer phaseTimer(String name) {
+        return meterRegistry.timer("rss.scrape.phase", "phase", name);
+    }
+
+    String extractTitle(Document doc) {
         // Try multiple selectors for title
         Element titleEl = doc.selectFirst("h1.detail-title");
         if (titleEl == null)
@@ -66,7 +146,7 @@ public class ArticleScraperService {
         return titleEl != null ? titleEl.text() : "";
     }
 
-    private String extractDescription(Document doc) {
+    String extractDescription(Document doc) {
         // Try meta description first
         Element metaDesc = doc.selectFirst("meta[name=description]");
         if (metaDesc != null) {
@@ -82,7 +162,7 @@ public class ArticleScraperService {
         return descEl != null ? descEl.text() : "";
     }
 
-    private String extractContent(Document doc) {
+    String extractContent(Document doc) {
         // Main content selectors for thanhnien.vn
         Element contentEl = doc.selectFirst(".detail-content");
         if (contentEl == null)
@@ -109,7 +189,7 @@ public class ArticleScraperService {
         return "";
     }
 
-    private String extractAuthor(Document doc) {
+    String extractAuthor(Document doc) {
         Element authorEl = doc.selectFirst(".detail-author");
         if (authorEl == null)
             authorEl = doc.selectFirst(".author");
@@ -118,7 +198,7 @@ public class ArticleScraperService {
         return authorEl != null ? authorEl.text() : "";
     }
 
-    private String extractPubDate(Document doc) {
+    String extractPubDate(Document doc) {
         Element dateEl = doc.selectFirst(".detail-time");
         if (dateEl == null)
             dateEl = doc.selectFirst(".time");
@@ -129,7 +209,35 @@ public class ArticleScraperService {
         return dateEl != null ? dateEl.text() : "";
     }
 
-    private String extractCategory(Document doc) {
+    /**
+     * Publish time in epoch milliseconds from the article:published_time meta
+     * tag, else from the date shown on the page, or null if neither parses
+     */
+    Long extractPublishedAt(Document doc, String pubDate) {
+        Element meta = doc.selectFirst("meta[property=article:published_time]");
+        if (meta != null) {
+            try {
+                return OffsetDateTime.parse(meta.attr("content")).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                // fall back to the visible date
+            }
+        }
+        Matcher matcher = PAGE_DATE.matcher(pubDate);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            LocalDateTime local = LocalDateTime.parse(matcher.group(1) + " " + matcher.group(2), PAGE_DATE_FORMAT);
+            ZoneId zone = matcher.group(3) != null
+                    ? ZoneOffset.ofHours(Integer.parseInt(matcher.group(3)))
+                    : SITE_ZONE;
+            return local.atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    String extractCategory(Document doc) {
         Element catEl = doc.selectFirst(".detail-cate");
         if (catEl == null)
             catEl = doc.selectFirst(".breadcrumb a");
@@ -138,7 +246,7 @@ public class ArticleScraperService {
         return catEl != null ? catEl.text() : "";
     }
 
-    private String extractMainImage(Document doc) {
+    String extractMainImage(Document doc) {
         Element imgEl = doc.selectFirst(".detail-content img");
         if (imgEl == null)
             imgEl = doc.selectFirst("article img");
@@ -157,7 +265,7 @@ public class ArticleScraperService {
         return "";
     }
 
-    private List<String> extractAllImages(Document doc) {
+    List<String> extractAllImages(Document doc) {
         List<String> images = new ArrayList<>();
         Elements imgElements = doc.select(".detail-content img, article img");
 
@@ -172,7 +280,7 @@ public class ArticleScraperService {
         return images;
     }
 
-    private List<String> extractTags(Document doc) {
+    List<String> extractTags(Document doc) {
         Elements tagElements = doc.select(".detail-tags a, .tags a, [class*=tag] a");
         return tagElements.stream()
                 .map(Element::text)
@@ -0,0 +1,103 @@
+package com.thanhnien.rss.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.RssFeed;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Canonical articles shared by every feed they appear in. The same story
+ * is listed by home.rss, tno.rss, tin-24h.rss and its category and
+ * subcategory feeds; each fetch parses its own copy, which is swapped here
+ * for the one instance already held for that link, so the feeds share one
+ * object and one set of strings.
+ * <p>
+ * An article keeps the category its feed item declares; the category a
+ * feed is requested as belongs to the response, not to the shared
+ * article. Category and author names are interned. Entries are weakly
+ * held and disappear once no cached feed references them.
+ */
+@Component
+public class ArticleStore {
+
+    private final Cache<String, Article> articles = Caffeine.newBuilder()
+            .weakValues()
+            .build();
+
+    /**
+     * The feed with its articles replaced by their canonical instances
+     */
+    public RssFeed canonicalize(RssFeed feed) {
+        if (feed.getArticles() == null) {
+            return feed;
+        }
+        List<Article> canonical = new ArrayList<>(feed.getArticles().size());
+        for (Article article : feed.getArticles()) {
+            canonical.add(article.getLink() != null ? share(article) : article);
+        }
+        return feed.toBuilder().articles(canonical).build();
+    }
+
+    /**
+     * Number of distinct article instances currently held
+     */
+    public long size() {
+        articles.cleanUp();
+        return articles.estimatedSize();
+    }
+
+    /**
+     * The held instance for this article's link if it has the same content,
+     * otherwise a copy of this article sharing the held one's unchanged
+     * strings, which becomes the held one
+     */
+    private Article share(Article article) {
+        return articles.asMap().compute(article.getLink(), (link, held) -> {
+            if (held != null && sameContent(held, article)) {
+                return held;
+            }
+            Article.ArticleBuilder shared = article.toBuilder()
+                    .category(intern(article.getCategory()))
+                    .author(intern(article.getAuthor()));
+            if (held != null) {
+                shared.title(reuse(held.getTitle(), article.getTitle()))
+                        .link(held.getLink())
+                        .description(reuse(held.getDescription(), article.getDescription()))
+                        .pubDate(reuse(held.getPubDate(), article.getPubDate()))
+                        .imageUrl(reuse(held.getImageUrl(), article.getImageUrl()));
+                if (article.getVideoUrl() == null) {
+                    shared.videoUrl(held.getVideoUrl());
+                }
+            }
+            return shared.build();
+        });
+    }
+
+    /**
+     * Equal apart from videoUrl, which a fresh parse does not have until
+     * enrichment has produced a copy of the feed with it
+     */
+    private static boolean sameContent(Article held, Article parsed) {
+        return Objects.equals(held.getTitle(), parsed.getTitle())
+                && Objects.equals(held.getCategory(), parsed.getCategory())
+                && Objects.equals(held.getDescription(), parsed.getDescription())
+                && Objects.equals(held.getPubDate(), parsed.getPubDate())
+                && Objects.equals(held.getPublishedAt(), parsed.getPublishedAt())
+                && Objects.equals(held.getImageUrl(), parsed.getImageUrl())
+                && Objects.equals(held.getAuthor(), parsed.getAuthor())
+                && (parsed.getVideoUrl() == null || parsed.getVideoUrl().equals(held.getVideoUrl()));
+    }
+
+    private static String reuse(String held, String parsed) {
+        return Objects.equals(held, parsed) ? held : parsed;
+    }
+
+    private static String intern(String value) {
+        return value != null ? value.intern() : null;
+    }
+}
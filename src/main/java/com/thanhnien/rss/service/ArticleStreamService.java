@@ -0,0 +1,170 @@
+package com.thanhnien.rss.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thanhnien.rss.config.ExecutorConfig;
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.ArticleUpdate;
+import com.thanhnien.rss.model.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes newly seen articles to server-sent event subscribers of their
+ * category. Connections are async servlet responses, so an idle
+ * subscriber holds no thread. Each refresh is compared with the previous
+ * one for the same feed, its new articles are serialized once, and the
+ * same payload is written to every subscriber on the fan-out executor.
+ */
+@Service
+public class ArticleStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleStreamService.class);
+
+    @Autowired
+    private RssService rssService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier(ExecutorConfig.FAN_OUT_EXECUTOR)
+    private ExecutorService fanOutExecutor;
+
+    @Value("${rss.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    /** Links of the last refresh of each feed URL */
+    private final Map<String, Set<String>> knownLinks = new ConcurrentHashMap<>();
+    private volatile Map<String, String> slugByUrl;
+    /** Set while a heartbeat is being written */
+    private final AtomicBoolean beating = new AtomicBoolean();
+
+    /**
+     * Open a stream of "articles" events for the given category slugs
+     */
+    public SseEmitter subscribe(Collection<String> slugs) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        for (String slug : slugs) {
+            subscribers.computeIfAbsent(slug, key -> ConcurrentHashMap.newKeySet()).add(emitter);
+        }
+        Runnable unsubscribe = () -> slugs.forEach(slug -> subscribers.get(slug).remove(emitter));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        return emitter;
+    }
+
+    @EventListener
+    public void onFeedRefreshed(FeedRefreshedEvent event) {
+        String slug = slugByUrl().get(event.url());
+        if (slug == null) {
+            return;
+        }
+        Set<String> links = event.feed().getArticles().stream()
+                .map(Article::getLink)
+                .collect(Collectors.toSet());
+        Set<String> previous = knownLinks.put(event.url(), links);
+        if (previous == null) {
+            // First sighting of this feed: nothing to compare against
+            return;
+        }
+        List<Article> fresh = event.feed().getArticles().stream()
+                .filter(article -> !previous.contains(article.getLink()))
+                .collect(Collectors.toList());
+        Set<SseEmitter> targets = subscribers.getOrDefault(slug, Collections.emptySet());
+        if (fresh.isEmpty() || targets.isEmpty()) {
+            return;
+        }
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(ArticleUpdate.builder()
+                    .categorySlug(slug)
+                    .articles(fresh)
+                    .build());
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize update for {}: {}", slug, e.getMessage());
+            return;
+        }
+        logger.info("Pushing {} new articles of {} to {} subscribers", fresh.size(), slug, targets.size());
+        fanOutExecutor.execute(() -> {
+            for (SseEmitter emitter : targets) {
+                send(emitter, SseEmitter.event().name("articles").data(payload, MediaType.APPLICATION_JSON));
+            }
+        });
+    }
+
+    /**
+     * Comment line to every subscriber, so dead connections are noticed and
+     * proxies do not close idle ones. The writes run on the fan-out
+     * executor, not on the scheduler thread shared with the other scheduled
+     * jobs; a beat is skipped while the previous one is still writing.
+     */
+    @Scheduled(fixedDelayString = "${rss.stream.heartbeat-ms:30000}")
+    public void heartbeat() {
+        Set<SseEmitter> emitters = Collections.newSetFromMap(new IdentityHashMap<>());
+        subscribers.values().forEach(emitters::addAll);
+        if (emitters.isEmpty() || !beating.compareAndSet(false, true)) {
+            return;
+        }
+        fanOutExecutor.execute(() -> {
+            try {
+                for (SseEmitter emitter : emitters) {
+                    send(emitter, SseEmitter.event().comment("ping"));
+                }
+            } finally {
+                beating.set(false);
+            }
+        });
+    }
+
+    private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; onError/onCompletion unsubscribes it
+            emitter.completeWithError(e);
+        }
+    }
+
+    private Map<String, String> slugByUrl() {
+        Map<String, String> map = slugByUrl;
+        if (map == null) {
+            map = new HashMap<>();
+            for (Category category : rssService.getAllCategories()) {
+                map.put(category.getRssUrl(), category.getSlug());
+                if (category.getSubCategories() != null) {
+                    for (Category sub : category.getSubCategories()) {
+                        map.put(sub.getRssUrl(), sub.getSlug());
+                    }
+                }
+            }
+            slugByUrl = map;
+        }
+        return map;
+    }
+}
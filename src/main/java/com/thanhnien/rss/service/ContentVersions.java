@@ -0,0 +1,44 @@
+package com.thanhnien.rss.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Validators for API responses. The ETag is a hash of the response model
+ * (the Lombok-generated hashCode, which reuses the cached hash of every
+ * String), so it changes whenever anything visible in the body changes,
+ * including the enriched copy that replaces a feed once its video URLs
+ * are resolved. Last-Modified is the time a given ETag was first handed
+ * out.
+ */
+@Component
+public class ContentVersions {
+
+    private final Cache<String, Long> firstSeen = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofDays(1))
+            .build();
+
+    /**
+     * ETag for a response body; variant distinguishes representations of
+     * the same content, such as different field projections
+     */
+    public String etag(Object body, String variant) {
+        Object value = body instanceof MappingJacksonValue wrapper ? wrapper.getValue() : body;
+        return "\"" + Integer.toHexString(Objects.hashCode(value))
+                + "-" + Integer.toHexString(Objects.hashCode(variant)) + "\"";
+    }
+
+    /**
+     * Epoch millis at which the ETag was first seen, truncated to seconds
+     * as HTTP dates are
+     */
+    public long lastModified(String etag) {
+        return firstSeen.get(etag, key -> System.currentTimeMillis() / 1000 * 1000);
+    }
+}
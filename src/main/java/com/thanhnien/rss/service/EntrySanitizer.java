@@ -0,0 +1,202 @@
+package com.thanhnien.rss.service;
+
+import java.util.Map;
+
+/**
+ * Turns the HTML of an entry description into plain text and picks out its
+ * image in a single scan: tags are dropped, character references decoded,
+ * and the first {@code <img src>} is remembered on the way past. Tag and
+ * image matching follow the regular expressions this replaces
+ * ({@code <[^>]*>} and {@code <img[^>]+src=["']([^"']+)["']}), so the
+ * same description gives the same text and image.
+ */
+final class EntrySanitizer {
+
+    /** Plain text of a description and its first image URL, or null if it has none */
+    record Sanitized(String text, String imageUrl) {
+    }
+
+    private static final Sanitized EMPTY = new Sanitized("", null);
+
+    private static final Map<String, Character> ENTITIES = Map.ofEntries(
+            Map.entry("amp", '&'),
+            Map.entry("lt", '<'),
+            Map.entry("gt", '>'),
+            Map.entry("quot", '"'),
+            Map.entry("apos", '\''),
+            Map.entry("nbsp", '\u00a0'),
+            Map.entry("ndash", '–'),
+            Map.entry("mdash", '—'),
+            Map.entry("lsquo", '‘'),
+            Map.entry("rsquo", '’'),
+            Map.entry("ldquo", '“'),
+            Map.entry("rdquo", '”'),
+            Map.entry("hellip", '…'),
+            Map.entry("laquo", '«'),
+            Map.entry("raquo", '»'),
+            Map.entry("copy", '©'));
+
+    /** Longest entity name in the table, bounding the lookahead for ';' */
+    private static final int MAX_ENTITY_LENGTH = 8;
+
+    private static final String ELLIPSIS = "…";
+
+    private EntrySanitizer() {
+    }
+
+    /**
+     * Sanitize a description. A positive maxLength truncates the text at a
+     * word boundary and appends an ellipsis; zero keeps it whole.
+     */
+    static Sanitized sanitize(String html, int maxLength) {
+        if (html == null || html.isEmpty()) {
+            return EMPTY;
+        }
+        int length = html.length();
+        String imageUrl = null;
+        StringBuilder text = null;
+        int copied = 0;
+        int i = 0;
+        boolean tagsDone = false;
+
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '<' && !tagsDone) {
+                int end = html.indexOf('>', i + 1);
+                if (imageUrl == null) {
+                    imageUrl = findImage(html, i, end < 0 ? length : end);
+                }
+                if (end < 0) {
+                    // No '>' anywhere after this point: the rest is text
+                    tagsDone = true;
+                    i++;
+                    continue;
+                }
+                text = flush(text, html, copied, i);
+                i = end + 1;
+                copied = i;
+            } else if (c == '&') {
+                int semicolon = referenceEnd(html, i);
+                char decoded = semicolon < 0 ? 0 : decode(html, i + 1, semicolon);
+                if (decoded != 0) {
+                    text = flush(text, html, copied, i);
+                    text.append(decoded);
+                    i = semicolon + 1;
+                    copied = i;
+                } else {
+                    i++;
+                }
+            } else {
+                i++;
+            }
+        }
+
+        String plain = text == null
+                ? html.trim()
+                : flush(text, html, copied, length).toString().trim();
+        return new Sanitized(truncate(plain, maxLength), imageUrl);
+    }
+
+    private static StringBuilder flush(StringBuilder text, String html, int from, int to) {
+        if (text == null) {
+            text = new StringBuilder(html.length());
+        }
+        return text.append(html, from, to);
+    }
+
+    /**
+     * First image URL among the {@code <img} occurrences in [from, to). Like
+     * the regex, the last src= before the tag's '>' wins, and an occurrence
+     * without a usable src= falls through to the next one.
+     */
+    private static String findImage(String html, int from, int to) {
+        int img = html.startsWith("<img", from) ? from : html.indexOf("<img", from + 1);
+        while (img >= 0 && img < to) {
+            int src = html.lastIndexOf("src=", to - 5);
+            while (src >= img + 5) {
+                String url = quotedValue(html, src + 4);
+                if (url != null) {
+                    return url;
+                }
+                src = html.lastIndexOf("src=", src - 1);
+            }
+            img = html.indexOf("<img", img + 1);
+        }
+        return null;
+    }
+
+    private static String quotedValue(String html, int quote) {
+        if (quote >= html.length() || !isQuote(html.charAt(quote))) {
+            return null;
+        }
+        int end = quote + 1;
+        while (end < html.length() && !isQuote(html.charAt(end))) {
+            end++;
+        }
+        return end < html.length() && end > quote + 1 ? html.substring(quote + 1, end) : null;
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '"' || c == '\'';
+    }
+
+    /**
+     * Index of the ';' closing the character reference at amp, or -1
+     */
+    private static int referenceEnd(String html, int amp) {
+        int limit = Math.min(html.length(), amp + MAX_ENTITY_LENGTH + 3);
+        for (int j = amp + 1; j < limit; j++) {
+            char c = html.charAt(j);
+            if (c == ';') {
+                return j > amp + 1 ? j : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '#') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Character for the reference between '&' and ';', or 0 if it is not one we know
+     */
+    private static char decode(String html, int from, int to) {
+        if (html.charAt(from) != '#') {
+            Character named = ENTITIES.get(html.substring(from, to));
+            return named != null ? named : 0;
+        }
+        boolean hex = to > from + 1 && (html.charAt(from + 1) == 'x' || html.charAt(from + 1) == 'X');
+        int start = hex ? from + 2 : from + 1;
+        if (start == to) {
+            return 0;
+        }
+        int code = 0;
+        for (int j = start; j < to; j++) {
+            int digit = Character.digit(html.charAt(j), hex ? 16 : 10);
+            if (digit < 0) {
+                return 0;
+            }
+            code = code * (hex ? 16 : 10) + digit;
+            if (code > Character.MAX_VALUE) {
+                return 0;
+            }
+        }
+        // Supplementary characters are rare in descriptions and left encoded
+        return code > 0 && !Character.isSurrogate((char) code) ? (char) code : 0;
+    }
+
+    private static String truncate(String text, int maxLength) {
+        if (maxLength <= 0 || text.length() <= maxLength) {
+            return text;
+        }
+        int cut = maxLength;
+        if (Character.isLowSurrogate(text.charAt(cut))) {
+            cut--;
+        }
+        int space = text.lastIndexOf(' ', cut);
+        if (space > maxLength / 2) {
+            cut = space;
+        }
+        return text.substring(0, cut).trim() + ELLIPSIS;
+    }
+}
@@ -0,0 +1,203 @@
+package com.thanhnien.rss.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thanhnien.rss.config.CacheConfig;
+import com.thanhnien.rss.model.RssFeed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Warm start for the rssFeed cache: the cached feeds are written to a
+ * gzipped JSON snapshot periodically and on shutdown, and read back while
+ * the context starts, before the server takes requests. Each feed's
+ * ETag/Last-Modified travel with it, so the first background refresh after
+ * a restart revalidates with conditional requests instead of downloading
+ * every feed again. Snapshots older than max-age are ignored.
+ */
+@Component
+public class FeedCacheSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedCacheSnapshot.class);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private FeedFetchEngine feedFetchEngine;
+
+    @Autowired
+    private ArticleStore articleStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${rss.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rss.snapshot.file:${java.io.tmpdir}/thanhnien-rss/feeds.json.gz}")
+    private String fileName;
+
+    @Value("${rss.snapshot.max-age-ms:86400000}")
+    private long maxAgeMs;
+
+    /** One cached feed with the validators of the response it came from */
+    record Entry(String url, String etag, String lastModified, RssFeed feed) {
+    }
+
+    private Path file;
+    private Cache cache;
+    /** Feeds restored at startup, announced once the application is ready */
+    private final Map<String, RssFeed> restored = new HashMap<>();
+
+    @PostConstruct
+    public void load() {
+        cache = cacheManager.getCache(CacheConfig.RSS_FEED_CACHE);
+        file = Paths.get(fileName);
+        if (!enabled || !Files.exists(file)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            long age = start - Files.getLastModifiedTime(file).toMillis();
+            if (age > maxAgeMs) {
+                logger.info("Ignoring feed snapshot {}: {} ms old", file, age);
+                return;
+            }
+            try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)));
+                 JsonParser json = objectMapper.getFactory().createParser(in)) {
+                if (json.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("not a feed snapshot");
+                }
+                while (json.nextToken() == JsonToken.START_OBJECT) {
+                    restore(objectMapper.readValue(json, Entry.class));
+                }
+            }
+            logger.info("Restored {} feeds from snapshot {} in {} ms",
+                    restored.size(), file, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            // Keep whatever was restored before the damage; the refresh fills the rest
+            logger.warn("Failed to read feed snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void restore(Entry entry) {
+        if (entry.url() == null || entry.feed() == null || entry.feed().getArticles() == null) {
+            return;
+        }
+        RssFeed feed = articleStore.canonicalize(entry.feed());
+        cache.put(entry.url(), feed);
+        feedFetchEngine.restore(entry.url(),
+                new FeedFetchEngine.FeedValidator(entry.etag(), entry.lastModified(), feed));
+        restored.put(entry.url(), feed);
+    }
+
+    /**
+     * Announce the restored feeds to the search index and other listeners,
+     * which are not registered yet while the snapshot is loaded. Feeds that
+     * a refresh has already replaced are skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        restored.forEach((url, feed) -> {
+            if (cache.get(url, RssFeed.class) == feed) {
+                eventPublisher.publishEvent(new FeedRefreshedEvent(url, feed));
+            }
+        });
+        restored.clear();
+    }
+
+    @Scheduled(initialDelayString = "${rss.snapshot.interval-ms:300000}",
+            fixedDelayString = "${rss.snapshot.interval-ms:300000}")
+    public void scheduledSave() {
+        save();
+    }
+
+    @PreDestroy
+    public synchronized void save() {
+        if (!enabled) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> feeds =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+        long start = System.currentTimeMillis();
+        int count = 0;
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "feeds", ".tmp");
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)));
+                 JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                for (Map.Entry<Object, Object> cached : feeds.asMap().entrySet()) {
+                    if (!(cached.getValue() instanceof RssFeed feed) || feed.getArticles() == null
+                            || feed.getArticles().isEmpty()) {
+                        continue;
+                    }
+                    String url = String.valueOf(cached.getKey());
+                    FeedFetchEngine.FeedValidator validator = feedFetchEngine.lastGood(url);
+                    boolean validated = validator != null && validator.feed() == feed;
+                    objectMapper.writeValue(json, new Entry(url,
+                            validated ? validator.etag() : null,
+                            validated ? validator.lastModified() : null,
+                            feed));
+                    count++;
+                }
+                json.writeEndArray();
+            }
+            if (count == 0) {
+                // Nothing cached (e.g. upstream down since startup): keep the previous snapshot
+                Files.delete(tmp);
+                return;
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Saved {} feeds to snapshot {} ({} bytes) in {} ms",
+                    count, file, Files.size(file), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            logger.warn("Failed to write feed snapshot {}: {}", file, e.getMessage());
+            deleteQuietly(tmp);
+        }
+    }
+
+    private static void deleteQuietly(Path tmp) {
+        if (tmp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            logger.warn("Failed to delete {}: {}", tmp, e.getMessage());
+        }
+    }
+}
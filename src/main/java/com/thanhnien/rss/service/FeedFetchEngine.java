@@ -0,0 +1,394 @@
+package com.thanhnien.rss.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thanhnien.rss.config.CacheConfig;
+import com.thanhnien.rss.config.ExecutorConfig;
+import com.thanhnien.rss.model.RssFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Asynchronous outbound RSS fetching on the shared {@link HttpClient}.
+ * No thread is held while a request is in flight; retries are scheduled
+ * on a delayed executor with jittered exponential backoff instead of
+ * sleeping, and parsing runs on the fan-out executor rather than the
+ * client's own threads. Requests go through the {@link OutboundGuard};
+ * while it refuses a host, feeds are served from their last good response
+ * instead of failing.
+ * <p>
+ * Fetches are timed per phase, across all feeds, under rss.fetch.phase:
+ * response (request sent until headers arrive, so connect plus server
+ * time), parse (the body decompressed and parsed as it streams in, so
+ * download plus XML plus mapping to articles) and enrich. Response
+ * statuses and retries are counted per feed, and rss.fetch times the
+ * whole fetch including retries, per feed.
+ */
+@Service
+public class FeedFetchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedFetchEngine.class);
+
+    @Autowired
+    private HttpClient httpClient;
+
+    @Autowired
+    private RssFeedParser rssFeedParser;
+
+    @Autowired
+    private VideoUrlResolver videoUrlResolver;
+
+    @Autowired
+    @Qualifier(ExecutorConfig.FAN_OUT_EXECUTOR)
+    private ExecutorService fanOutExecutor;
+
+    @Autowired
+    private OutboundGuard outboundGuard;
+
+    @Autowired
+    private RetryPolicy retryPolicy;
+
+    @Autowired
+    private ArticleStore articleStore;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${rss.http.request-timeout-ms:30000}")
+    private long requestTimeoutMs;
+
+    @Value("${rss.last-good.max-weight-bytes:33554432}")
+    private long lastGoodMaxWeightBytes;
+
+    @Value("${rss.last-good.idle-ttl-ms:3600000}")
+    private long lastGoodIdleTtlMs;
+
+    /**
+     * The last good response per feed: the feed parsed from it, so a 304 can
+     * be answered without parsing and an unavailable upstream with stale
+     * data, and its ETag/Last-Modified when it had them.
+     */
+    record FeedValidator(String etag, String lastModified, RssFeed feed) {
+    }
+
+    /**
+     * Weighed like the rssFeed cache, whose entries are mostly the same
+     * feed objects, and dropped once a feed has not been fetched or read
+     * for the idle TTL, so ad-hoc URLs do not outlive their cache entry
+     * for long
+     */
+    private Cache<String, FeedValidator> validators;
+
+    private final SingleFlight<String, RssFeed> inFlight = new SingleFlight<>();
+
+    /** Feeds with a retry pending whose callers are being served the last good copy */
+    private final Set<String> retrying = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        validators = Caffeine.newBuilder()
+                .maximumWeight(lastGoodMaxWeightBytes)
+                .weigher((String url, FeedValidator validator) -> CacheConfig.estimateBytes(validator.feed()))
+                .expireAfterAccess(lastGoodIdleTtlMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Fetch and parse a feed. Never completes exceptionally: after the last
+     * failed attempt the future completes with an empty "Error" feed.
+     * Concurrent calls for the same URL share one fetch and one parse.
+     * <p>
+     * Failed attempts are retried on a timer as the {@link RetryPolicy}
+     * allows. While a retry is pending, callers get the feed's last good
+     * response at once; if the retry succeeds, the fresh feed replaces it in
+     * the rssFeed cache.
+     */
+    public CompletableFuture<RssFeed> fetch(String rssUrl) {
+        FeedValidator lastGood = validators.getIfPresent(rssUrl);
+        if (lastGood != null && retrying.contains(rssUrl)) {
+            return CompletableFuture.completedFuture(lastGood.feed());
+        }
+        return inFlight.execute(rssUrl, () -> {
+            CompletableFuture<RssFeed> served = new CompletableFuture<>();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryPolicy.getDeadlineMs());
+            attempt(rssUrl, 1, deadline, served).whenComplete((feed, error) -> {
+                retrying.remove(rssUrl);
+                sample.stop(meterRegistry.timer("rss.fetch",
+                        "feed", feedTag(rssUrl), "outcome", error == null ? "success" : "error"));
+                if (error != null) {
+                    served.complete(fallback(rssUrl, unwrap(error)));
+                } else if (!served.complete(feed) && !feed.getArticles().isEmpty()) {
+                    // The caller was already given the stale copy
+                    cacheManager.getCache(CacheConfig.RSS_FEED_CACHE).put(rssUrl, feed);
+                    eventPublisher.publishEvent(new FeedRefreshedEvent(rssUrl, feed));
+                }
+            });
+            return served;
+        });
+    }
+
+    /**
+     * The last good response for a feed, or null
+     */
+    FeedValidator lastGood(String rssUrl) {
+        return validators.getIfPresent(rssUrl);
+    }
+
+    /**
+     * Seed the last good response for a feed, e.g. from a snapshot, so its
+     * next fetch is a conditional request
+     */
+    void restore(String rssUrl, FeedValidator validator) {
+        validators.asMap().putIfAbsent(rssUrl, validator);
+    }
+
+    private RssFeed fallback(String rssUrl, Throwable error) {
+        FeedValidator lastGood = validators.getIfPresent(rssUrl);
+        if (error instanceof UpstreamUnavailableException && lastGood != null) {
+            logger.warn("Serving last good copy of {}: {}", rssUrl, error.getMessage());
+            return lastGood.feed();
+        }
+        logger.error("Error fetching RSS from {}: {}", rssUrl, error.getMessage());
+        return RssFeed.builder()
+                .title("Error")
+                .description("Failed to fetch RSS: " + error.getMessage())
+                .articles(new ArrayList<>())
+                .build();
+    }
+
+    /**
+     * One attempt, followed by a timer-scheduled retry if it fails with a
+     * retryable error and the next attempt can start before the deadline.
+     * The first time a retry is scheduled, served is completed with the
+     * last good feed if there is one.
+     */
+    private CompletableFuture<RssFeed> attempt(String rssUrl, int attempt, long deadline,
+                                               CompletableFuture<RssFeed> served) {
+        logger.info("Fetching RSS from: {} (attempt {})", rssUrl, attempt);
+        return fetchOnce(rssUrl, deadline).handle((feed, error) -> {
+            if (error == null) {
+                return CompletableFuture.completedFuture(feed);
+            }
+            Throwable cause = unwrap(error);
+            long backoffMs = retryPolicy.backoffMs(attempt);
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (attempt >= retryPolicy.getMaxAttempts() || !retryPolicy.isRetryable(cause)
+                    || backoffMs >= remainingMs) {
+                logger.warn("Attempt {} failed for {}, giving up: {}", attempt, rssUrl, cause.getMessage());
+                return CompletableFuture.<RssFeed>failedFuture(cause);
+            }
+            logger.warn("Attempt {} failed for {}, retrying in {} ms: {}", attempt, rssUrl, backoffMs, cause.getMessage());
+            meterRegistry.counter("rss.fetch.retries", "feed", feedTag(rssUrl)).increment();
+            FeedValidator lastGood = validators.getIfPresent(rssUrl);
+            if (lastGood != null && retrying.add(rssUrl)) {
+                served.complete(lastGood.feed());
+            }
+            Executor delayed = CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS);
+            return CompletableFuture.runAsync(() -> {
+            }, delayed).thenCompose(ignored -> attempt(rssUrl, attempt + 1, deadline, served));
+        }).thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<RssFeed> fetchOnce(String rssUrl, long deadline) {
+        FeedValidator validator = validators.getIfPresent(rssUrl);
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        long timeoutMs = Math.max(1, Math.min(requestTimeoutMs, remainingMs));
+        HttpRequest request = buildRequest(rssUrl, validator, timeoutMs);
+        String feedTag = feedTag(rssUrl);
+
+        // The body is read inside the guarded exchange, so the host's slot
+        // covers the download and 429 and 5xx responses count against its circuit
+        return outboundGuard.execute(rssUrl, () -> httpClient.sendAsync(request, streamedBody(feedTag))
+                .thenApplyAsync(response -> {
+                    if (response.statusCode() == 304 && validator != null) {
+                        closeQuietly(response.body());
+                        logger.info("RSS not modified: {}", rssUrl);
+                        enrichLater(rssUrl, validator.feed());
+                        return validator.feed();
+                    }
+                    if (response.statusCode() != 200) {
+                        closeQuietly(response.body());
+                        throw new FeedFetchException(rssUrl, response.statusCode());
+                    }
+                    RssFeed parsed = phaseTimer("parse").record(() -> parse(response, timeoutMs));
+                    RssFeed enriched = phaseTimer("enrich").record(() -> videoUrlResolver.withResolved(parsed));
+                    RssFeed feed = articleStore.canonicalize(enriched);
+
+                    String etag = response.headers().firstValue("ETag").orElse(null);
+                    String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+                    if (!feed.getArticles().isEmpty()) {
+                        validators.put(rssUrl, new FeedValidator(etag, lastModified, feed));
+                        enrichLater(rssUrl, feed);
+                    }
+                    return feed;
+                }, fanOutExecutor));
+    }
+
+    /**
+     * Resolve the feed's outstanding video URLs in the background and swap
+     * the enriched copy in for the feed, as the last good response and in
+     * the rssFeed cache, unless a newer fetch has replaced it meanwhile
+     */
+    private void enrichLater(String rssUrl, RssFeed feed) {
+        videoUrlResolver.resolvePending(feed).thenAccept(resolved -> {
+            if (resolved == null) {
+                return;
+            }
+            RssFeed enriched = articleStore.canonicalize(resolved);
+            validators.asMap().computeIfPresent(rssUrl, (url, validator) -> validator.feed() == feed
+                    ? new FeedValidator(validator.etag(), validator.lastModified(), enriched)
+                    : validator);
+            @SuppressWarnings("unchecked")
+            Cache<Object, Object> cached = (Cache<Object, Object>)
+                    cacheManager.getCache(CacheConfig.RSS_FEED_CACHE).getNativeCache();
+            if (cached.asMap().computeIfPresent(rssUrl, (url, current) -> current == feed ? enriched : current) == enriched) {
+                eventPublisher.publishEvent(new FeedRefreshedEvent(rssUrl, enriched));
+            }
+        });
+    }
+
+    private HttpRequest buildRequest(String rssUrl, FeedValidator validator, long timeoutMs) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(rssUrl))
+                .GET()
+                .timeout(Duration.ofMillis(timeoutMs))
+                // Set headers to mimic a real browser request from Vietnam
+                .header("User-Agent",
+                        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
+                .header("Accept", "application/rss+xml, application/xml, text/xml, */*")
+                .header("Accept-Language", "vi-VN,vi;q=0.9,en-US;q=0.8,en;q=0.7")
+                .header("Accept-Encoding", "gzip, deflate");
+
+        // Conditional GET against the validators of the last good response
+        if (validator != null) {
+            if (validator.etag() != null) {
+                builder.header("If-None-Match", validator.etag());
+            }
+            if (validator.lastModified() != null) {
+                builder.header("If-Modified-Since", validator.lastModified());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Body handler that records the response phase when headers arrive and
+     * hands the body over as a stream, read while it downloads
+     */
+    private HttpResponse.BodyHandler<InputStream> streamedBody(String feedTag) {
+        long sent = System.nanoTime();
+        return responseInfo -> {
+            phaseTimer("response").record(System.nanoTime() - sent, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("rss.fetch.responses",
+                    "feed", feedTag, "status", String.valueOf(responseInfo.statusCode())).increment();
+            return HttpResponse.BodySubscribers.ofInputStream();
+        };
+    }
+
+    private Timer phaseTimer(String phase) {
+        return meterRegistry.timer("rss.fetch.phase", "phase", phase);
+    }
+
+    /**
+     * Metric tag for a feed: its path for thanhnien.vn feeds, so the
+     * number of series stays bounded, and "external" for any other URL
+     */
+    private static String feedTag(String rssUrl) {
+        if (!rssUrl.startsWith(RssService.BASE_RSS_URL)) {
+            return "external";
+        }
+        String path = rssUrl.substring(RssService.BASE_RSS_URL.length());
+        return path.endsWith(".rss") ? path.substring(0, path.length() - 4) : path;
+    }
+
+    /**
+     * Decompress and parse the body as it arrives. The request timeout only
+     * covers the headers, so the body is closed if it has not been read
+     * within timeoutMs, which wakes a read blocked on a stalled download.
+     */
+    private RssFeed parse(HttpResponse<InputStream> response, long timeoutMs) {
+        CompletableFuture<Boolean> stalled = new CompletableFuture<Boolean>()
+                .completeOnTimeout(true, timeoutMs, TimeUnit.MILLISECONDS);
+        stalled.thenAccept(timedOut -> {
+            if (timedOut) {
+                closeQuietly(response.body());
+            }
+        });
+        try (InputStream body = response.body();
+             InputStream inputStream = decodedStream(body, response.headers().firstValue("Content-Encoding").orElse(""))) {
+            return rssFeedParser.parse(inputStream);
+        } catch (Exception e) {
+            if (stalled.getNow(false)) {
+                throw new CompletionException(new HttpTimeoutException("body not received within " + timeoutMs + " ms"));
+            }
+            throw new CompletionException(e);
+        } finally {
+            stalled.complete(false);
+        }
+    }
+
+    /**
+     * Wrap the response body in a streaming decompressor matching its Content-Encoding
+     */
+    private static InputStream decodedStream(InputStream body, String encoding) throws IOException {
+        switch (encoding.trim().toLowerCase()) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body);
+            case "deflate":
+                return new InflaterInputStream(body);
+            default:
+                return body;
+        }
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close response body: {}", e.getMessage());
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,18 @@
+package com.thanhnien.rss.service;
+
+/**
+ * Thrown when an upstream feed request completes with an unexpected HTTP status.
+ */
+public class FeedFetchException extends RuntimeException {
+
+    private final int statusCode;
+
+    public FeedFetchException(String url, int statusCode) {
+        super("HTTP " + statusCode + " received from " + url);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
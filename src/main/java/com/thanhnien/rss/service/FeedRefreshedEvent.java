@@ -0,0 +1,9 @@
+package com.thanhnien.rss.service;
+
+import com.thanhnien.rss.model.RssFeed;
+
+/**
+ * Published whenever a freshly fetched feed is put into the rssFeed cache
+ */
+public record FeedRefreshedEvent(String url, RssFeed feed) {
+}
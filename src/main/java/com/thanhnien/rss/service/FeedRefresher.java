@@ -0,0 +1,89 @@
+package com.thanhnien.rss.service;
+
+import com.thanhnien.rss.config.CacheConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps every known feed warm in the rssFeed cache so that API requests
+ * are served from memory instead of waiting on thanhnien.vn.
+ */
+@Component
+public class FeedRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedRefresher.class);
+
+    @Autowired
+    private RssService rssService;
+
+    @Autowired
+    private FeedFetchEngine feedFetchEngine;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /** Set while a cycle's fetches are outstanding */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Refresh all feeds. Runs once at startup, then on a fixed delay; the
+     * fetches are only started here, so the shared scheduler thread is free
+     * again at once. A cycle that comes round while the previous one is
+     * still outstanding is skipped, so two cycles never overlap.
+     */
+    @Scheduled(initialDelayString = "${rss.refresh.initial-delay-ms:0}",
+            fixedDelayString = "${rss.refresh.interval-ms:300000}")
+    public void refreshAll() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Previous refresh still running, skipping this cycle");
+            return;
+        }
+        List<String> urls = rssService.getRefreshUrls();
+        long start = System.currentTimeMillis();
+
+        List<CompletableFuture<Boolean>> futures = urls.stream()
+                .map(this::refresh)
+                .collect(Collectors.toList());
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            running.set(false);
+            long failed = futures.stream().filter(f -> !f.join()).count();
+            logger.info("Refreshed {} feeds in {} ms ({} failed, serving stale data for those)",
+                    urls.size(), System.currentTimeMillis() - start, failed);
+        });
+    }
+
+    /**
+     * Fetch one feed and replace its cache entry. A failed refresh keeps the
+     * previous entry so readers keep getting stale data meanwhile.
+     */
+    private CompletableFuture<Boolean> refresh(String url) {
+        Cache cache = cacheManager.getCache(CacheConfig.RSS_FEED_CACHE);
+        return feedFetchEngine.fetch(url)
+                .thenApply(feed -> {
+                    if (feed.getArticles().isEmpty()) {
+                        return false;
+                    }
+                    cache.put(url, feed);
+                    eventPublisher.publishEvent(new FeedRefreshedEvent(url, feed));
+                    return true;
+                })
+                .exceptionally(e -> {
+                    logger.warn("Background refresh failed for {}: {}", url, e.getMessage());
+                    return false;
+                });
+    }
+}
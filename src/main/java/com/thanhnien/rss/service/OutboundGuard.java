@@ -0,0 +1,371 @@
+package com.thanhnien.rss.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jsoup.HttpStatusException;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Governs outbound requests per host: a bulkhead bounding concurrent
+ * requests, a token bucket bounding the request rate, and a circuit
+ * breaker that fails fast once the host keeps failing.
+ * <p>
+ * Waiting for a slot or a token never holds a thread: requests queue as
+ * futures and are started when a slot is released or the bucket refills.
+ * After failure-threshold consecutive upstream failures (I/O errors,
+ * timeouts, 429 and 5xx) the circuit opens and requests are refused with
+ * {@link UpstreamUnavailableException} for open-ms; then a single trial
+ * request decides whether it closes again.
+ */
+@Component
+public class OutboundGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundGuard.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${rss.outbound.max-concurrent-per-host:6}")
+    private int maxConcurrent;
+
+    @Value("${rss.outbound.max-queued-per-host:500}")
+    private int maxQueued;
+
+    @Value("${rss.outbound.max-wait-ms:60000}")
+    private long maxWaitMs;
+
+    @Value("${rss.outbound.max-blocking-wait-ms:5000}")
+    private long maxBlockingWaitMs;
+
+    @Value("${rss.outbound.host-idle-ms:600000}")
+    private long hostIdleMs;
+
+    @Value("${rss.outbound.rate-per-second:10}")
+    private double ratePerSecond;
+
+    @Value("${rss.outbound.burst:20}")
+    private int burst;
+
+    @Value("${rss.outbound.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${rss.outbound.open-ms:30000}")
+    private long openMs;
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** What a finished request says about its host */
+    private enum Outcome { HEALTHY, FAILED, NOT_SENT }
+
+    /**
+     * Hosts come from request URLs, including user-supplied ones, so a host
+     * not used for host-idle-ms is dropped; its state then starts afresh
+     */
+    private Cache<String, Host> hosts;
+
+    @PostConstruct
+    public void init() {
+        hosts = Caffeine.newBuilder()
+                .expireAfterAccess(hostIdleMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Run an asynchronous request once the host admits it. The returned
+     * future fails with {@link UpstreamUnavailableException} if it does not.
+     */
+    public <T> CompletableFuture<T> execute(String url, Supplier<CompletableFuture<T>> request) {
+        Host host = host(url);
+        return host.acquire(maxWaitMs).thenCompose(permit -> {
+            CompletableFuture<T> response;
+            try {
+                response = request.get();
+            } catch (RuntimeException e) {
+                permit.release(outcome(e));
+                throw e;
+            }
+            return response.whenComplete((value, error) -> permit.release(outcome(error)));
+        });
+    }
+
+    /**
+     * Run a blocking request on the calling thread once the host admits it.
+     * The caller is typically serving a request, so it waits for a slot at
+     * most max-blocking-wait-ms.
+     *
+     * @throws UpstreamUnavailableException if the host does not admit it
+     */
+    public <T> T call(String url, Callable<T> request) throws Exception {
+        Permit permit = await(host(url).acquire(maxBlockingWaitMs));
+        try {
+            T value = request.call();
+            permit.release(Outcome.HEALTHY);
+            return value;
+        } catch (Exception e) {
+            permit.release(outcome(e));
+            throw e;
+        }
+    }
+
+    /**
+     * Whether requests to the URL's host are currently refused by its circuit
+     */
+    public boolean isOpen(String url) {
+        Host host = hosts.getIfPresent(hostName(url));
+        return host != null && host.isOpen();
+    }
+
+    private Host host(String url) {
+        return hosts.get(hostName(url), Host::new);
+    }
+
+    /**
+     * Metric tag for a host: its name for thanhnien.vn hosts, so the number
+     * of series stays bounded, and "external" for any other
+     */
+    private static String hostTag(String host) {
+        return host.equals("thanhnien.vn") || host.endsWith(".thanhnien.vn") ? host : "external";
+    }
+
+    private static String hostName(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : "unknown";
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+
+    private static Permit await(CompletableFuture<Permit> acquired) throws Exception {
+        try {
+            return acquired.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private static Outcome outcome(Throwable error) {
+        return error != null && isUpstreamFailure(error) ? Outcome.FAILED : Outcome.HEALTHY;
+    }
+
+    /**
+     * Whether an error says the host is unhealthy rather than that this one
+     * request was bad
+     */
+    static boolean isUpstreamFailure(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof FeedFetchException e) {
+            return e.getStatusCode() == 429 || e.getStatusCode() >= 500;
+        }
+        if (error instanceof HttpStatusException e) {
+            return e.getStatusCode() == 429 || e.getStatusCode() >= 500;
+        }
+        return error instanceof IOException && !(error instanceof UnsupportedMimeTypeException);
+    }
+
+    /**
+     * A started request holding one of its host's slots
+     */
+    private final class Permit {
+        private final Host host;
+        private final boolean trial;
+        private boolean released;
+
+        Permit(Host host, boolean trial) {
+            this.host = host;
+            this.trial = trial;
+        }
+
+        void release(Outcome outcome) {
+            synchronized (host) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            host.release(this, outcome);
+        }
+    }
+
+    /** A queued request and the permit it has been granted */
+    private record Grant(CompletableFuture<Permit> waiter, Permit permit) {
+    }
+
+    /**
+     * Slots, tokens, circuit state and queued requests of one host, all
+     * guarded by the Host's monitor. Futures are completed outside it, since
+     * completing one runs the caller's request.
+     */
+    private final class Host {
+        private final String name;
+        private final Deque<CompletableFuture<Permit>> waiting = new ArrayDeque<>();
+        private int active;
+        private double tokens;
+        private long refilledAt;
+        private boolean drainScheduled;
+        private State state = State.CLOSED;
+        private int failures;
+        private long openUntil;
+        private boolean trialInFlight;
+
+        Host(String name) {
+            this.name = name;
+            this.tokens = burst;
+            this.refilledAt = System.nanoTime();
+        }
+
+        CompletableFuture<Permit> acquire(long waitMs) {
+            CompletableFuture<Permit> waiter = new CompletableFuture<>();
+            List<Grant> ready;
+            synchronized (this) {
+                if (!admits()) {
+                    return rejected("circuit_open", "circuit open");
+                }
+                if (waiting.size() >= maxQueued) {
+                    return rejected("queue_full", maxQueued + " requests already queued");
+                }
+                waiting.add(waiter);
+                ready = drain();
+            }
+            start(ready);
+            return waiter.orTimeout(waitMs, TimeUnit.MILLISECONDS).exceptionallyCompose(e -> {
+                if (!(e instanceof TimeoutException)) {
+                    return CompletableFuture.failedFuture(e);
+                }
+                synchronized (this) {
+                    waiting.remove(waiter);
+                }
+                return rejected("timeout", "no slot within " + waitMs + " ms");
+            });
+        }
+
+        synchronized boolean isOpen() {
+            return state == State.OPEN && System.nanoTime() - openUntil < 0;
+        }
+
+        void release(Permit permit, Outcome outcome) {
+            List<Grant> ready;
+            List<CompletableFuture<Permit>> refused = List.of();
+            synchronized (this) {
+                active--;
+                if (outcome == Outcome.NOT_SENT) {
+                    // Neither proves nor disproves anything about the host
+                } else if (outcome == Outcome.HEALTHY) {
+                    if (state != State.CLOSED) {
+                        logger.info("Circuit for {} closed", name);
+                    }
+                    state = State.CLOSED;
+                    failures = 0;
+                } else if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+                    if (state != State.OPEN) {
+                        logger.warn("Circuit for {} opened after {} failures, refusing requests for {} ms",
+                                name, failures, openMs);
+                    }
+                    state = State.OPEN;
+                    openUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(openMs);
+                    refused = new ArrayList<>(waiting);
+                    waiting.clear();
+                }
+                if (permit.trial) {
+                    trialInFlight = false;
+                }
+                ready = drain();
+            }
+            for (CompletableFuture<Permit> waiter : refused) {
+                waiter.completeExceptionally(new UpstreamUnavailableException(name, "circuit open"));
+            }
+            start(ready);
+        }
+
+        /** Whether the circuit lets a new request in; must hold the monitor */
+        private boolean admits() {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openUntil < 0) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+            }
+            return state == State.CLOSED || !trialInFlight;
+        }
+
+        /**
+         * Take the queued requests that have both a slot and a token, and
+         * schedule another pass for when the next token is due; must hold
+         * the monitor
+         */
+        private List<Grant> drain() {
+            List<Grant> ready = new ArrayList<>();
+            refill();
+            while (!waiting.isEmpty() && active < maxConcurrent && tokens >= 1) {
+                boolean trial = state == State.HALF_OPEN;
+                if (trial && trialInFlight) {
+                    break;
+                }
+                CompletableFuture<Permit> waiter = waiting.poll();
+                if (waiter.isDone()) {
+                    continue;
+                }
+                trialInFlight |= trial;
+                tokens--;
+                active++;
+                ready.add(new Grant(waiter, new Permit(this, trial)));
+            }
+            if (!waiting.isEmpty() && tokens < 1 && !drainScheduled) {
+                long delayNanos = (long) ((1 - tokens) / ratePerSecond * 1_000_000_000L);
+                drainScheduled = true;
+                CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                    List<Grant> next;
+                    synchronized (this) {
+                        drainScheduled = false;
+                        next = drain();
+                    }
+                    start(next);
+                });
+            }
+            return ready;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) / 1e9 * ratePerSecond);
+            refilledAt = now;
+        }
+
+        private void start(List<Grant> ready) {
+            for (Grant grant : ready) {
+                if (!grant.waiter().complete(grant.permit())) {
+                    // Timed out meanwhile: hand the slot back without judging the host
+                    grant.permit().release(Outcome.NOT_SENT);
+                }
+            }
+        }
+
+        private CompletableFuture<Permit> rejected(String reason, String message) {
+            meterRegistry.counter("rss.outbound.rejected", "host", hostTag(name), "reason", reason).increment();
+            return CompletableFuture.failedFuture(new UpstreamUnavailableException(name, message));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.thanhnien.rss.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON and gzip bodies of full feed and home-page responses, serialized
+ * once per content version so hot responses are a byte copy. Entries are
+ * keyed by the model's hashCode and checked with equals, which is an
+ * identity check for the cached object itself; the models are immutable,
+ * so a feed that changes (e.g. videoUrl enrichment) is a new object with
+ * a new hash and is rendered again. Feeds are rendered ahead of time as
+ * they are refreshed.
+ */
+@Component
+public class PrerenderedResponses {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrerenderedResponses.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    @Value("${rss.response.prerender:false}")
+    private boolean enabled;
+
+    @Value("${rss.response.prerender-max-bytes:67108864}")
+    private long maxBytes;
+
+    /** Serialized body of one model, with ETags for each encoding */
+    public record Rendered(Object source, byte[] json, byte[] gzip, String etag, String gzipEtag) {
+    }
+
+    private Cache<Integer, Rendered> rendered;
+
+    @PostConstruct
+    public void init() {
+        rendered = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Integer key, Rendered value) -> value.json().length + value.gzip().length)
+                .expireAfterAccess(Duration.ofMinutes(30))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Serialized form of the body, rendering it if this content has not
+     * been seen yet
+     */
+    public Rendered get(Object body) {
+        int hash = body.hashCode();
+        Rendered current = rendered.getIfPresent(hash);
+        if (current != null && current.source().equals(body)) {
+            return current;
+        }
+        Rendered fresh = render(body);
+        rendered.put(hash, fresh);
+        return fresh;
+    }
+
+    @EventListener
+    public void onFeedRefreshed(FeedRefreshedEvent event) {
+        if (enabled) {
+            get(event.feed());
+        }
+    }
+
+    private Rendered render(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            logger.debug("Rendered {} response: {} bytes, {} gzipped",
+                    body.getClass().getSimpleName(), json.length, compressed.size());
+            return new Rendered(body, json, compressed.toByteArray(),
+                    contentVersions.etag(body, null), contentVersions.etag(body, "gzip"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
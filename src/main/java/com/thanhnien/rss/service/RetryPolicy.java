@@ -0,0 +1,74 @@
+package com.thanhnien.rss.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and how soon a failed feed request is tried again: exponential
+ * backoff with full jitter, capped per delay, within an overall deadline
+ * per fetch. Only failures that another attempt can fix are retried.
+ */
+@Component
+public class RetryPolicy {
+
+    @Value("${rss.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${rss.retry.initial-backoff-ms:500}")
+    private long initialBackoffMs;
+
+    @Value("${rss.retry.multiplier:2.0}")
+    private double multiplier;
+
+    @Value("${rss.retry.max-backoff-ms:8000}")
+    private long maxBackoffMs;
+
+    @Value("${rss.retry.deadline-ms:30000}")
+    private long deadlineMs;
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Time allowed for a fetch from its first attempt to its last
+     */
+    public long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    /**
+     * Delay before the attempt after the given one: uniformly random up to
+     * initial-backoff-ms * multiplier^(attempt - 1), capped at max-backoff-ms,
+     * so feeds failing together do not retry together
+     */
+    public long backoffMs(int attempt) {
+        double ceiling = Math.min(maxBackoffMs, initialBackoffMs * Math.pow(multiplier, attempt - 1));
+        return ThreadLocalRandom.current().nextLong((long) ceiling + 1);
+    }
+
+    /**
+     * Whether another attempt might succeed: timeouts, I/O errors (including
+     * a truncated body) and 408, 429, 500, 502, 503 and 504 responses. Other
+     * statuses, unparseable feeds and requests the outbound guard refused
+     * are final.
+     */
+    public boolean isRetryable(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof FeedFetchException e) {
+            switch (e.getStatusCode()) {
+                case 408, 429, 500, 502, 503, 504:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        return error instanceof IOException;
+    }
+}
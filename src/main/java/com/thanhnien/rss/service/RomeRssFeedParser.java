@@ -0,0 +1,116 @@
+package com.thanhnien.rss.service;
+
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlReader;
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.RssFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Parses a feed with Rome and maps its entries to {@link Article}s.
+ * Builds a full document tree, but understands every RSS and Atom version.
+ */
+@Component
+@ConditionalOnProperty(name = "rss.parser", havingValue = "rome", matchIfMissing = true)
+public class RomeRssFeedParser implements RssFeedParser {
+
+    @Value("${rss.description.max-length:0}")
+    private int descriptionMaxLength;
+
+    @Override
+    public RssFeed parse(InputStream inputStream) throws Exception {
+        return parse(new XmlReader(inputStream));
+    }
+
+    /**
+     * Parse an already decoded document
+     */
+    public RssFeed parse(Reader reader) throws Exception {
+        return parse(reader, descriptionMaxLength);
+    }
+
+    RssFeed parse(Reader reader, int descriptionMaxLength) throws Exception {
+        SyndFeedInput input = new SyndFeedInput();
+        SyndFeed syndFeed = input.build(reader);
+
+        // Sequential on purpose: callers already parse on the fan-out executor.
+        // videoUrl is filled in afterwards by VideoUrlResolver.
+        List<Article> articles = syndFeed.getEntries().stream()
+                .map(entry -> toArticle(entry, descriptionMaxLength))
+                .collect(Collectors.toList());
+
+        return RssFeed.builder()
+                .title(syndFeed.getTitle())
+                .description(syndFeed.getDescription())
+                .link(syndFeed.getLink())
+                .language(syndFeed.getLanguage())
+                .articles(articles)
+                .build();
+    }
+
+    private Article toArticle(SyndEntry entry, int descriptionMaxLength) {
+        EntrySanitizer.Sanitized description = EntrySanitizer.sanitize(
+                entry.getDescription() != null ? entry.getDescription().getValue() : null,
+                descriptionMaxLength);
+        Long publishedAt = RssEntries.toEpochMillis(entry.getPublishedDate());
+        return Article.builder()
+                .title(entry.getTitle())
+                .link(entry.getLink())
+                .description(description.text())
+                .pubDate(RssEntries.formatDate(publishedAt))
+                .publishedAt(publishedAt)
+                .imageUrl(extractImageUrl(entry, description))
+                .author(extractAuthor(entry))
+                .category(extractCategory(entry))
+                .build();
+    }
+
+    /**
+     * Extract image URL from RSS entry
+     */
+    private String extractImageUrl(SyndEntry entry, EntrySanitizer.Sanitized description) {
+        // Try the description first
+        if (description.imageUrl() != null) {
+            return description.imageUrl();
+        }
+
+        // Try to extract from enclosures
+        if (entry.getEnclosures() != null && !entry.getEnclosures().isEmpty()) {
+            return entry.getEnclosures().get(0).getUrl();
+        }
+
+        return "";
+    }
+
+    /**
+     * Extract author from RSS entry
+     */
+    private String extractAuthor(SyndEntry entry) {
+        if (entry.getAuthor() != null && !entry.getAuthor().isEmpty()) {
+            return entry.getAuthor();
+        }
+        if (entry.getAuthors() != null && !entry.getAuthors().isEmpty()) {
+            return entry.getAuthors().get(0).getName();
+        }
+        return "";
+    }
+
+    /**
+     * Extract category from RSS entry
+     */
+    private String extractCategory(SyndEntry entry) {
+        if (entry.getCategories() != null && !entry.getCategories().isEmpty()) {
+            return entry.getCategories().get(0).getName();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.thanhnien.rss.service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * Entry field mapping shared by the RSS parsers, so every parser produces
+ * identical {@code Article}s for the same document.
+ */
+final class RssEntries {
+
+    /** Immutable, so safe to share between the parsing threads */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")
+            .withZone(ZoneId.systemDefault());
+
+    private RssEntries() {
+    }
+
+    static Long toEpochMillis(Date date) {
+        return date != null ? date.getTime() : null;
+    }
+
+    static String formatDate(Long publishedAt) {
+        return publishedAt != null ? DATE_FORMAT.format(Instant.ofEpochMilli(publishedAt)) : "";
+    }
+}
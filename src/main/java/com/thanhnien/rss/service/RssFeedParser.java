@@ -0,0 +1,17 @@
+package com.thanhnien.rss.service;
+
+import com.thanhnien.rss.model.RssFeed;
+
+import java.io.InputStream;
+
+/**
+ * Turns a raw RSS document into an {@link RssFeed}. The implementation is
+ * chosen with rss.parser: "rome" (default) or "stax".
+ */
+public interface RssFeedParser {
+
+    /**
+     * Parse an RSS document into an RssFeed
+     */
+    RssFeed parse(InputStream inputStream) throws Exception;
+}
@@ -1,48 +1,52 @@
 package com.thanhnien.rss.service;
 
-import com.rometools.rome.feed.synd.SyndEntry;
-import com.rometools.rome.feed.synd.SyndFeed;
-import com.rometools.rome.io.SyndFeedInput;
-import com.rometools.rome.io.XmlReader;
+import com.thanhnien.rss.config.CacheConfig;
 import com.thanhnien.rss.model.Article;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-
 import com.thanhnien.rss.model.Category;
 import com.thanhnien.rss.model.RssFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import com.thanhnien.rss.model.HomePageData;
 import com.thanhnien.rss.model.CategorySection;
-import org.springframework.cache.annotation.Cacheable;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 
 @Service
 public class RssService {
 
         @Autowired
-        @Lazy
-        private RssService self;
+        private FeedFetchEngine feedFetchEngine;
 
-        private static final Logger logger = LoggerFactory.getLogger(RssService.class);
-        private static final String BASE_RSS_URL = "https://thanhnien.vn/rss/";
-        private static final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+        @Autowired
+        private ApplicationEventPublisher eventPublisher;
+
+        @Autowired
+        private CacheManager cacheManager;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        @Value("${rss.home.budget-ms:2000}")
+        private long homeBudgetMs;
 
+        private static final Logger logger = LoggerFactory.getLogger(RssService.class);
+        public static final String BASE_RSS_URL = "https://thanhnien.vn/rss/";
+        private static final String TRENDING_RSS_URL = BASE_RSS_URL + "tno.rss";
+        private static final String MOST_READ_RSS_URL = BASE_RSS_URL + "tin-24h.rss";
         // Predefined categories from thanhnien.vn
         private final List<Category> categories = Arrays.asList(
                         Category.builder()
@@ -637,106 +641,80 @@ public class RssService {
         }
 
         /**
-         * Fetch RSS feed from URL
+         * Get the feed URL of every category and subcategory
          */
-        @Cacheable(value = "rssFeed", key = "#rssUrl", unless = "#result == null || #result.articles.isEmpty()")
-        public RssFeed fetchRss(String rssUrl) {
-                int maxRetries = 3;
-                int retryCount = 0;
-                Exception lastException = null;
-
-                while (retryCount < maxRetries) {
-                        HttpURLConnection connection = null;
-                        try {
-                                logger.info("Fetching RSS from: {} (attempt {})", rssUrl, retryCount + 1);
-                                URL url = java.net.URI.create(rssUrl).toURL();
-                                
-                                connection = (HttpURLConnection) url.openConnection();
-                                connection.setRequestMethod("GET");
-                                connection.setConnectTimeout(15000); // 15 seconds connect timeout
-                                connection.setReadTimeout(30000); // 30 seconds read timeout
-                                
-                                // Set headers to mimic a real browser request from Vietnam
-                                connection.setRequestProperty("User-Agent", 
-                                        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36");
-                                connection.setRequestProperty("Accept", 
-                                        "application/rss+xml, application/xml, text/xml, */*");
-                                connection.setRequestProperty("Accept-Language", "vi-VN,vi;q=0.9,en-US;q=0.8,en;q=0.7");
-                                connection.setRequestProperty("Accept-Encoding", "identity");
-                                connection.setRequestProperty("Cache-Control", "no-cache");
-                                connection.setRequestProperty("Connection", "keep-alive");
-                                
-                                int responseCode = connection.getResponseCode();
-                                if (responseCode != HttpURLConnection.HTTP_OK) {
-                                        logger.warn("HTTP {} received from {}", responseCode, rssUrl);
-                                        retryCount++;
-                                        Thread.sleep(1000 * retryCount); // Exponential backoff
-                                        continue;
+        public List<String> getCategoryUrls() {
+                List<String> urls = new ArrayList<>();
+                for (Category category : categories) {
+                        urls.add(category.getRssUrl());
+                        if (category.getSubCategories() != null) {
+                                for (Category sub : category.getSubCategories()) {
+                                        urls.add(sub.getRssUrl());
                                 }
+                        }
+                }
+                return urls;
+        }
 
-                                try (InputStream inputStream = connection.getInputStream()) {
-                                        SyndFeedInput input = new SyndFeedInput();
-                                        SyndFeed syndFeed = input.build(new XmlReader(inputStream));
-
-                                        List<Article> articles = syndFeed.getEntries().parallelStream()
-                                                        .map(entry -> Article.builder()
-                                                                        .title(entry.getTitle())
-                                                                        .link(entry.getLink())
-                                                                        .description(cleanDescription(
-                                                                                        entry.getDescription() != null
-                                                                                                        ? entry.getDescription()
-                                                                                                                        .getValue()
-                                                                                                        : ""))
-                                                                        .pubDate(entry.getPublishedDate() != null
-                                                                                        ? dateFormat.format(entry.getPublishedDate())
-                                                                                        : "")
-                                                                        .imageUrl(extractImageUrl(entry))
-                                                                        .videoUrl(extractVideoUrl(entry.getLink()))
-                                                                        .author(extractAuthor(entry))
-                                                                        .category(extractCategory(entry))
-                                                                        .build())
-                                                        .collect(Collectors.toList());
-
-                                        return RssFeed.builder()
-                                                        .title(syndFeed.getTitle())
-                                                        .description(syndFeed.getDescription())
-                                                        .link(syndFeed.getLink())
-                                                        .language(syndFeed.getLanguage())
-                                                        .articles(articles)
-                                                        .build();
-                                }
+        /**
+         * Get every feed URL kept warm by the background refresher
+         */
+        public List<String> getRefreshUrls() {
+                List<String> urls = getCategoryUrls();
+                urls.add(TRENDING_RSS_URL);
+                urls.add(MOST_READ_RSS_URL);
+                return urls;
+        }
 
-                        } catch (Exception e) {
-                                lastException = e;
-                                logger.warn("Attempt {} failed for {}: {}", retryCount + 1, rssUrl, e.getMessage());
-                                retryCount++;
-                                try {
-                                        Thread.sleep(1000 * retryCount); // Exponential backoff
-                                } catch (InterruptedException ie) {
-                                        Thread.currentThread().interrupt();
-                                        break;
-                                }
-                        } finally {
-                                if (connection != null) {
-                                        connection.disconnect();
-                                }
-                        }
+        /**
+         * Fetch RSS feed from URL, served from the rssFeed cache when warm. On
+         * a miss the feed's last good copy is served at once, if there is one,
+         * while the fetch that refills the cache runs in the background; only
+         * a feed that has never been fetched waits for its fetch.
+         */
+        public RssFeed fetchRss(String rssUrl) {
+                Cache cache = cacheManager.getCache(CacheConfig.RSS_FEED_CACHE);
+                RssFeed cached = cache.get(rssUrl, RssFeed.class);
+                if (cached != null) {
+                        return cached;
                 }
+                FeedFetchEngine.FeedValidator lastGood = feedFetchEngine.lastGood(rssUrl);
+                CompletableFuture<RssFeed> fetch = load(cache, rssUrl);
+                return lastGood != null ? lastGood.feed() : fetch.join();
+        }
 
-                logger.error("Error fetching RSS from {} after {} retries: {}", 
-                        rssUrl, maxRetries, lastException != null ? lastException.getMessage() : "Unknown error");
-                return RssFeed.builder()
-                                .title("Error")
-                                .description("Failed to fetch RSS after " + maxRetries + " attempts")
-                                .articles(new ArrayList<>())
-                                .build();
+        /**
+         * Non-blocking counterpart of fetchRss, sharing its rssFeed cache entries.
+         * Callers compose on the returned future instead of joining it, so no
+         * fan-out thread ever waits for a parse queued behind it on the same pool.
+         */
+        public CompletableFuture<RssFeed> fetchRssAsync(String rssUrl) {
+                Cache cache = cacheManager.getCache(CacheConfig.RSS_FEED_CACHE);
+                RssFeed cached = cache.get(rssUrl, RssFeed.class);
+                if (cached != null) {
+                        return CompletableFuture.completedFuture(cached);
+                }
+                return load(cache, rssUrl);
+        }
+
+        /**
+         * Fetch a feed and put it in the rssFeed cache unless it came back empty
+         */
+        private CompletableFuture<RssFeed> load(Cache cache, String rssUrl) {
+                return feedFetchEngine.fetch(rssUrl).thenApply(feed -> {
+                        if (!feed.getArticles().isEmpty()) {
+                                cache.put(rssUrl, feed);
+                                eventPublisher.publishEvent(new FeedRefreshedEvent(rssUrl, feed));
+                        }
+                        return feed;
+                });
         }
 
         /**
          * Get home page articles
          */
         public RssFeed getHomeArticles() {
-                return self.fetchRss(BASE_RSS_URL + "home.rss");
+                return fetchRss(BASE_RSS_URL + "home.rss");
         }
 
         /**
@@ -745,9 +723,7 @@ public class RssService {
         public RssFeed getArticlesByCategory(String slug) {
                 Category category = findCategoryBySlug(slug);
                 if (category != null) {
-                        RssFeed feed = self.fetchRss(category.getRssUrl());
-                        feed.getArticles().forEach(article -> article.setCategory(category.getName()));
-                        return feed;
+                        return inCategory(fetchRss(category.getRssUrl()), category);
                 }
                 return RssFeed.builder()
                                 .title("Not Found")
@@ -762,174 +738,158 @@ public class RssService {
         public List<RssFeed> getAllFeeds() {
                 List<RssFeed> allFeeds = new ArrayList<>();
                 for (Category category : categories) {
-                        RssFeed feed = self.fetchRss(category.getRssUrl());
-                        feed.getArticles().forEach(article -> article.setCategory(category.getName()));
-                        allFeeds.add(feed);
+                        allFeeds.add(inCategory(fetchRss(category.getRssUrl()), category));
                 }
                 return allFeeds;
         }
 
         /**
-         * Extract image URL from RSS entry
+         * The cached feed as served for a category: a new feed object naming
+         * the category and holding the cached article list itself, so the
+         * shared articles are neither copied nor relabelled
          */
-        private String extractImageUrl(SyndEntry entry) {
-                // Try to extract from description
-                if (entry.getDescription() != null) {
-                        String desc = entry.getDescription().getValue();
-                        Pattern pattern = Pattern.compile("<img[^>]+src=[\"']([^\"']+)[\"']");
-                        Matcher matcher = pattern.matcher(desc);
-                        if (matcher.find()) {
-                                return matcher.group(1);
-                        }
-                }
+        private RssFeed inCategory(RssFeed feed, Category category) {
+                return feed.toBuilder().category(category.getName()).build();
+        }
 
-                // Try to extract from enclosures
-                if (entry.getEnclosures() != null && !entry.getEnclosures().isEmpty()) {
-                        return entry.getEnclosures().get(0).getUrl();
+        /**
+         * Copy of the feed holding only articles published after since (epoch
+         * millis), for incremental polling. A null since returns the feed as is;
+         * the cached feed is never modified.
+         */
+        public RssFeed publishedSince(RssFeed feed, Long since) {
+                if (since == null) {
+                        return feed;
                 }
-
-                return "";
+                List<Article> articles = feed.getArticles().stream()
+                                .filter(article -> article.getPublishedAt() != null && article.getPublishedAt() > since)
+                                .collect(Collectors.toList());
+                return feed.toBuilder().articles(articles).build();
         }
 
         /**
-         * Clean HTML from description
+         * Window of the feed's articles starting at offset, at most limit long
+         * (all remaining when null). The articles are a view of the original
+         * list, not a copy.
          */
-        private String cleanDescription(String description) {
-                if (description == null)
-                        return "";
-                // Remove HTML tags but keep text
-                return description.replaceAll("<[^>]*>", "").trim();
+        public RssFeed slice(RssFeed feed, int offset, Integer limit) {
+                List<Article> articles = feed.getArticles();
+                int from = Math.min(Math.max(offset, 0), articles.size());
+                int to = limit == null ? articles.size() : Math.min(from + Math.max(limit, 0), articles.size());
+                if (from == 0 && to == articles.size()) {
+                        return feed;
+                }
+                return feed.toBuilder().articles(articles.subList(from, to)).build();
         }
 
         /**
-         * Extract video URL from article page
+         * Get aggregated data for Home Page, within the home-page latency
+         * budget counted from the start of the request. A section that is not
+         * ready in time, or whose feed failed, is served from its feed's last
+         * good copy, or left out when there is none, and listed in
+         * staleSections. Sections still running keep going in the background
+         * and warm the cache for the next request.
          */
-        private String extractVideoUrl(String articleUrl) {
-                try {
-                        // Only fetch for video category or if URL contains "video"
-                        if (articleUrl == null || !articleUrl.contains("video")) {
-                                return null;
-                        }
-
-                        Document doc = Jsoup.connect(articleUrl)
-                                        .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                                        .timeout(5000)
-                                        .get();
-
-                        // Strategy 1: Look for video tag inside table.video video (Thanh Nien specific)
-                        Element videoTag = doc.selectFirst("table.video video");
-                        if (videoTag != null && videoTag.hasAttr("src")) {
-                                return videoTag.attr("src");
-                        }
+        public HomePageData getHomePageData() {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(homeBudgetMs);
 
-                        // Strategy 2: Look for video tag inside td.vid video (Thanh Nien specific)
-                        Element videoTag2 = doc.selectFirst("td.vid video");
-                        if (videoTag2 != null && videoTag2.hasAttr("src")) {
-                                return videoTag2.attr("src");
-                        }
+                // 1. Fetch Home/Featured articles
+                CompletableFuture<List<Article>> featuredFuture = section("featured", BASE_RSS_URL + "home.rss");
 
-                        // Strategy 3: Look for any video tag with components
-                        Element anyVideo = doc.selectFirst("video[src]");
-                        if (anyVideo != null) {
-                                return anyVideo.attr("src");
-                        }
+                // 2. Fetch ALL specific categories concurrently
+                List<Category> sectionCategories = this.categories.stream()
+                                .filter(cat -> !cat.getSlug().equals("home")) // Skip Home category
+                                .collect(Collectors.toList());
+                List<CompletableFuture<List<Article>>> categoryFutures = sectionCategories.stream()
+                                .map(cat -> section(cat.getSlug(), cat.getRssUrl()))
+                                .collect(Collectors.toList());
 
-                        // Strategy 4: Open Graph video tag
-                        Element ogVideo = doc.selectFirst("meta[property=og:video]");
-                        if (ogVideo != null) {
-                                return ogVideo.attr("content");
-                        }
+                // 3. Fetch Trending (using tno.rss)
+                CompletableFuture<List<Article>> trendingFuture = section("trending", TRENDING_RSS_URL);
 
-                        // Strategy 5: Look for video content div with data attributes
-                        Element videoDiv = doc.selectFirst("div.cms-video-player");
-                        if (videoDiv != null && videoDiv.hasAttr("data-src")) {
-                                return videoDiv.attr("data-src");
+                // 4. Fetch Most Read (using tin-24h.rss)
+                CompletableFuture<List<Article>> mostReadFuture = section("most-read", MOST_READ_RSS_URL);
+
+                // Wait for all, but no longer than what is left of the budget
+                CompletableFuture.allOf(featuredFuture, trendingFuture, mostReadFuture,
+                                CompletableFuture.allOf(categoryFutures.toArray(new CompletableFuture[0])))
+                                .exceptionally(e -> null)
+                                .completeOnTimeout(null, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                                .join();
+
+                List<String> stale = new ArrayList<>();
+                List<CategorySection> sections = new ArrayList<>();
+                for (int i = 0; i < sectionCategories.size(); i++) {
+                        Category cat = sectionCategories.get(i);
+                        List<Article> articles = withinBudget(cat.getSlug(), cat.getRssUrl(), categoryFutures.get(i), stale);
+                        if (articles != null) {
+                                sections.add(CategorySection.builder()
+                                                .categoryName(cat.getName())
+                                                .categorySlug(cat.getSlug())
+                                                .articles(articles)
+                                                .build());
                         }
-
-                } catch (Exception e) {
-                        logger.error("Error extracting video URL from {}: {}", articleUrl, e.getMessage());
                 }
-                return null;
+                HomePageData data = HomePageData.builder()
+                                .featuredArticles(orEmpty(withinBudget("featured", BASE_RSS_URL + "home.rss", featuredFuture, stale)))
+                                .categorySections(sections)
+                                .trendingArticles(orEmpty(withinBudget("trending", TRENDING_RSS_URL, trendingFuture, stale)))
+                                .mostReadArticles(orEmpty(withinBudget("most-read", MOST_READ_RSS_URL, mostReadFuture, stale)))
+                                .staleSections(stale)
+                                .build();
+                if (!stale.isEmpty()) {
+                        logger.warn("Home page served with stale sections: {}", stale);
+                }
+                sample.stop(meterRegistry.timer("rss.home", "outcome", stale.isEmpty() ? "success" : "partial"));
+                return data;
         }
 
         /**
-         * Extract author from RSS entry
+         * The section's articles if it finished in time with some, otherwise
+         * the head of its feed's last good copy, or null when there is none;
+         * either way the section is recorded as stale
          */
-        private String extractAuthor(SyndEntry entry) {
-                if (entry.getAuthor() != null && !entry.getAuthor().isEmpty()) {
-                        return entry.getAuthor();
-                }
-                if (entry.getAuthors() != null && !entry.getAuthors().isEmpty()) {
-                        return entry.getAuthors().get(0).getName();
+        private List<Article> withinBudget(String section, String rssUrl, CompletableFuture<List<Article>> future,
+                        List<String> stale) {
+                List<Article> articles = future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+                if (articles != null && !articles.isEmpty()) {
+                        return articles;
                 }
-                return "";
+                stale.add(section);
+                meterRegistry.counter("rss.home.stale", "section", section).increment();
+                FeedFetchEngine.FeedValidator lastGood = feedFetchEngine.lastGood(rssUrl);
+                return lastGood != null ? head(lastGood.feed().getArticles(), 5) : null;
+        }
+
+        private static List<Article> orEmpty(List<Article> articles) {
+                return articles != null ? articles : Collections.emptyList();
         }
 
         /**
-         * Extract category from RSS entry
+         * The first n articles as a view of the cached list, not a copy
          */
-        private String extractCategory(SyndEntry entry) {
-                if (entry.getCategories() != null && !entry.getCategories().isEmpty()) {
-                        return entry.getCategories().get(0).getName();
-                }
-                return null;
+        private static List<Article> head(List<Article> articles, int n) {
+                return articles.subList(0, Math.min(n, articles.size()));
         }
 
         /**
-         * Get aggregated data for Home Page
+         * The first five articles of one home page section's feed, timed under
+         * rss.home.section. Composed on the fetch rather than run as a blocking
+         * task, so the sections hold no thread while their feeds load.
          */
-        public HomePageData getHomePageData() {
-                // 1. Fetch Home/Featured articles
-                CompletableFuture<List<Article>> featuredFuture = CompletableFuture.supplyAsync(() -> {
-                        RssFeed feed = self.getHomeArticles();
-                        return feed.getArticles().stream().limit(5).collect(Collectors.toList());
-                });
-
-                // 2. Fetch ALL specific categories concurrently
-                List<CompletableFuture<CategorySection>> categoryFutures = this.categories.stream()
-                                .filter(cat -> !cat.getSlug().equals("home")) // Skip Home category
-                                .map(cat -> CompletableFuture.supplyAsync(() -> {
-                                        RssFeed feed = self.getArticlesByCategory(cat.getSlug());
-                                        return CategorySection.builder()
-                                                        .categoryName(cat.getName())
-                                                        .categorySlug(cat.getSlug())
-                                                        .articles(feed.getArticles().stream().limit(5)
-                                                                        .collect(Collectors.toList()))
-                                                        .build();
-                                }))
-                                .collect(Collectors.toList());
-
-                // 3. Fetch Trending (using tno.rss)
-                CompletableFuture<List<Article>> trendingFuture = CompletableFuture.supplyAsync(() -> {
-                        RssFeed feed = self.fetchRss(BASE_RSS_URL + "tno.rss");
-                        return feed.getArticles().stream().limit(5).collect(Collectors.toList());
-                });
-
-                // 4. Fetch Most Read (using tin-24h.rss)
-                CompletableFuture<List<Article>> mostReadFuture = CompletableFuture.supplyAsync(() -> {
-                        RssFeed feed = self.fetchRss(BASE_RSS_URL + "tin-24h.rss");
-                        return feed.getArticles().stream().limit(5).collect(Collectors.toList());
-                });
-
-                // Wait for all
-                CompletableFuture<Void> allFutures = CompletableFuture.allOf(
-                                featuredFuture, trendingFuture, mostReadFuture,
-                                CompletableFuture.allOf(categoryFutures.toArray(new CompletableFuture[0])));
-
+        private CompletableFuture<List<Article>> section(String section, String rssUrl) {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                CompletableFuture<RssFeed> feed;
                 try {
-                        allFutures.join();
-
-                        return HomePageData.builder()
-                                        .featuredArticles(featuredFuture.get())
-                                        .categorySections(categoryFutures.stream()
-                                                        .map(CompletableFuture::join)
-                                                        .collect(Collectors.toList()))
-                                        .trendingArticles(trendingFuture.get())
-                                        .mostReadArticles(mostReadFuture.get())
-                                        .build();
-                } catch (Exception e) {
-                        logger.error("Error fetching Home Page Data: {}", e.getMessage());
-                        return new HomePageData(); // Return empty on error
+                        feed = fetchRssAsync(rssUrl);
+                } catch (RuntimeException e) {
+                        // Leave the section to its last good copy rather than failing the page
+                        feed = CompletableFuture.failedFuture(e);
                 }
+                return feed
+                                .thenApply(loaded -> head(loaded.getArticles(), 5))
+                                .whenComplete((articles, error) ->
+                                                sample.stop(meterRegistry.timer("rss.home.section", "section", section)));
         }
 }
@@ -0,0 +1,389 @@
+package com.thanhnien.rss.service;
+
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.ArticleDetail;
+import com.thanhnien.rss.model.SearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the articles of every refreshed feed,
+ * keyed by link. Title, category and description are indexed, plus the
+ * scraped page content when rss.search.index-content is enabled. Tokens
+ * are accent-folded with {@link SearchTokenizer}.
+ * <p>
+ * Posting lists are parallel int arrays of document id and field weight,
+ * kept in document id order so multi-term queries intersect them with
+ * binary searches. A changed article is indexed under a new id and the
+ * old one is tombstoned. Beyond rss.search.max-documents, the article that
+ * has gone longest without appearing in a refreshed feed is tombstoned,
+ * one per new article. Tombstones are compacted away once they outnumber
+ * live documents.
+ */
+@Service
+public class SearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int TEXT_WEIGHT = 1;
+
+    @Value("${rss.search.index-content:false}")
+    private boolean indexContent;
+
+    @Value("${rss.search.max-documents:50000}")
+    private int maxDocuments;
+
+    /**
+     * Documents containing one term, in increasing id order
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] weights = new int[4];
+        private int size;
+
+        void add(int doc, int weight) {
+            if (size > 0 && docs[size - 1] == doc) {
+                weights[size - 1] += weight;
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        /**
+         * Index of the first entry at or after from whose doc is >= doc.
+         * Gallops forward before the binary search, since successive probes
+         * during an intersection are usually close together.
+         */
+        int seek(int from, int doc) {
+            int step = 1;
+            int high = from;
+            while (high < size && docs[high] < doc) {
+                from = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(docs, from, Math.min(high + 1, size), doc);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    /** Document id by link, least recently seen in a feed first */
+    private final LinkedHashMap<String, Integer> docIdByLink = new LinkedHashMap<>(1024, 0.75f, true);
+    /** Article by document id, null once tombstoned */
+    private final List<Article> docs = new ArrayList<>();
+    /** Hash of the indexed text by document id, to skip unchanged articles */
+    private int[] signatures = new int[1024];
+    /** Publish time by document id, for ranking ties without unboxing */
+    private long[] published = new long[1024];
+    private final Map<String, String> contentByLink = new HashMap<>();
+    private int deleted;
+
+    @EventListener
+    public void onFeedRefreshed(FeedRefreshedEvent event) {
+        if (event.feed().getArticles() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Article article : event.feed().getArticles()) {
+                index(article);
+            }
+            evictIfNeeded();
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onArticleScraped(ArticleScrapedEvent event) {
+        ArticleDetail detail = event.detail();
+        if (!indexContent || detail.getUrl() == null || detail.getContent() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            contentByLink.put(detail.getUrl(), detail.getContent());
+            Integer doc = docIdByLink.get(detail.getUrl());
+            if (doc != null) {
+                index(docs.get(doc));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search for articles containing every term of the query, best match
+     * first and newest first among equal scores
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(SearchTokenizer.tokenize(query));
+        lock.readLock().lock();
+        try {
+            List<Article> articles = new ArrayList<>();
+            int total = terms.isEmpty() ? 0 : collect(terms, offset, limit, articles);
+            return SearchResult.builder()
+                    .query(query)
+                    .total(total)
+                    .offset(offset)
+                    .articles(articles)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of live documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size() - deleted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(Article article) {
+        String link = article.getLink();
+        if (link == null) {
+            return;
+        }
+        String content = contentByLink.get(link);
+        int signature = Objects.hash(article.getTitle(), article.getCategory(), article.getDescription(), content);
+        Integer existing = docIdByLink.get(link);
+        if (existing != null) {
+            if (signatures[existing] == signature) {
+                docs.set(existing, article);
+                published[existing] = article.getPublishedAt() != null ? article.getPublishedAt() : Long.MIN_VALUE;
+                return;
+            }
+            docs.set(existing, null);
+            deleted++;
+        }
+
+        int doc = docs.size();
+        docs.add(article);
+        if (doc == signatures.length) {
+            signatures = Arrays.copyOf(signatures, doc * 2);
+            published = Arrays.copyOf(published, doc * 2);
+        }
+        signatures[doc] = signature;
+        published[doc] = article.getPublishedAt() != null ? article.getPublishedAt() : Long.MIN_VALUE;
+        docIdByLink.put(link, doc);
+
+        addField(doc, article.getTitle(), TITLE_WEIGHT);
+        addField(doc, article.getCategory(), CATEGORY_WEIGHT);
+        addField(doc, article.getDescription(), TEXT_WEIGHT);
+        addField(doc, content, TEXT_WEIGHT);
+    }
+
+    private void addField(int doc, String text, int weight) {
+        SearchTokenizer.forEachToken(text,
+                token -> postings.computeIfAbsent(token, t -> new Postings()).add(doc, weight));
+    }
+
+    /**
+     * Tombstone the least recently seen articles while more than
+     * max-documents are live
+     */
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Integer>> eldest = docIdByLink.entrySet().iterator();
+        while (docs.size() - deleted > maxDocuments && eldest.hasNext()) {
+            Map.Entry<String, Integer> entry = eldest.next();
+            eldest.remove();
+            docs.set(entry.getValue(), null);
+            deleted++;
+            contentByLink.remove(entry.getKey());
+        }
+    }
+
+    /**
+     * Rebuild from the live documents once tombstones outnumber them,
+     * keeping their least recently seen order
+     */
+    private void compactIfNeeded() {
+        int live = docs.size() - deleted;
+        if (deleted < 1024 || deleted < live) {
+            return;
+        }
+        List<Article> keep = new ArrayList<>(live);
+        for (Integer doc : docIdByLink.values()) {
+            keep.add(docs.get(doc));
+        }
+
+        postings.clear();
+        docIdByLink.clear();
+        docs.clear();
+        deleted = 0;
+        for (Article article : keep) {
+            index(article);
+        }
+        contentByLink.keySet().retainAll(docIdByLink.keySet());
+        logger.info("Compacted search index to {} articles and {} terms", docs.size(), postings.size());
+    }
+
+    /**
+     * Intersect the posting lists of the terms, adding the page at offset
+     * to page and returning the total number of matches
+     */
+    private int collect(Set<String> terms, int offset, int limit, List<Article> page) {
+        Postings[] lists = new Postings[terms.size()];
+        int n = 0;
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                return 0;
+            }
+            lists[n++] = list;
+        }
+        // Walk the rarest term and probe the others
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+        double[] idf = new double[n];
+        for (int i = 0; i < n; i++) {
+            idf[i] = Math.log(1 + (double) docs.size() / lists[i].size);
+        }
+
+        TopHits top = new TopHits(offset + limit);
+        int[] cursors = new int[n];
+        int total = 0;
+        Postings rarest = lists[0];
+        candidates:
+        for (int i = 0; i < rarest.size; i++) {
+            int doc = rarest.docs[i];
+            if (docs.get(doc) == null) {
+                continue;
+            }
+            double score = rarest.weights[i] * idf[0];
+            for (int t = 1; t < n; t++) {
+                int at = lists[t].seek(cursors[t], doc);
+                cursors[t] = at;
+                if (at == lists[t].size || lists[t].docs[at] != doc) {
+                    continue candidates;
+                }
+                score += lists[t].weights[at] * idf[t];
+            }
+            total++;
+            top.offer(doc, score);
+        }
+        top.drainInto(offset, page);
+        return total;
+    }
+
+    /**
+     * Bounded min-heap of the best k documents on primitive arrays
+     */
+    private final class TopHits {
+        private final int[] heapDocs;
+        private final double[] heapScores;
+        private int size;
+
+        TopHits(int capacity) {
+            heapDocs = new int[capacity];
+            heapScores = new double[capacity];
+        }
+
+        void offer(int doc, double score) {
+            if (heapDocs.length == 0) {
+                return;
+            }
+            if (size < heapDocs.length) {
+                heapDocs[size] = doc;
+                heapScores[size] = score;
+                siftUp(size++);
+            } else if (better(doc, score, heapDocs[0], heapScores[0])) {
+                heapDocs[0] = doc;
+                heapScores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /** Append hits from rank offset on, best first */
+        void drainInto(int offset, List<Article> page) {
+            Article[] ranked = new Article[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ranked[i] = docs.get(heapDocs[0]);
+                heapDocs[0] = heapDocs[i];
+                heapScores[0] = heapScores[i];
+                size--;
+                siftDown(0);
+            }
+            for (int i = offset; i < ranked.length; i++) {
+                page.add(ranked[i]);
+            }
+        }
+
+        private boolean better(int doc, double score, int otherDoc, double otherScore) {
+            if (score != otherScore) {
+                return score > otherScore;
+            }
+            long a = published[doc];
+            long b = published[otherDoc];
+            return a != b ? a > b : doc > otherDoc;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!better(heapDocs[parent], heapScores[parent], heapDocs[i], heapScores[i])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int worst = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (better(heapDocs[worst], heapScores[worst], heapDocs[child], heapScores[child])) {
+                        worst = child;
+                    }
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int doc = heapDocs[i];
+            heapDocs[i] = heapDocs[j];
+            heapDocs[j] = doc;
+            double score = heapScores[i];
+            heapScores[i] = heapScores[j];
+            heapScores[j] = score;
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.thanhnien.rss.service;
+
+import com.rometools.rome.io.XmlReader;
+import com.rometools.rome.io.impl.DateParser;
+import com.rometools.rome.io.impl.XmlFixerReader;
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.RssFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streaming RSS parser: reads channel fields and {@code <item>} elements
+ * straight into {@link Article}s with a StAX pull parser, without building
+ * a document tree. Input goes through the same encoding detection and
+ * entity healing as Rome, and field mapping is shared with
+ * {@link RomeRssFeedParser}, so both produce the same feed. Documents that
+ * are not RSS (Atom) are handed to Rome.
+ */
+@Component
+@ConditionalOnProperty(name = "rss.parser", havingValue = "stax")
+public class StaxRssFeedParser implements RssFeedParser {
+
+    private static final String DC_NS = "http://purl.org/dc/elements/1.1/";
+    private static final String RSS090_NS = "http://my.netscape.com/rdf/simple/0.9/";
+    private static final String RSS10_NS = "http://purl.org/rss/1.0/";
+
+    private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+    private static final String CDATA_START = "<x><![CDATA[";
+    private static final String CDATA_END = "]]></x>";
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private final RomeRssFeedParser fallback = new RomeRssFeedParser();
+
+    @Value("${rss.description.max-length:0}")
+    private int descriptionMaxLength;
+
+    @Value("${rss.parser.heal-buffer-bytes:1048576}")
+    private int healBufferBytes = 1_048_576;
+
+    /**
+     * Parses as the document streams in. The bytes read are kept, up to
+     * heal-buffer-bytes, only so the document can be replayed to Rome or
+     * to a healing pass; a document that turns out malformed past that
+     * point fails instead.
+     */
+    @Override
+    public RssFeed parse(InputStream inputStream) throws Exception {
+        ReplayableInputStream input = new ReplayableInputStream(inputStream, healBufferBytes);
+        try {
+            return parse(input, new XmlReader(input), true);
+        } catch (XMLStreamException e) {
+            if (!input.canReplay()) {
+                throw e;
+            }
+            // Not well-formed as is (HTML entities, junk before the prolog):
+            // heal the whole document the way Rome does and try again.
+            ReplayableInputStream replayed = new ReplayableInputStream(input.replay(), healBufferBytes);
+            return parse(replayed, new XmlFixerReader(new XmlReader(replayed)), false);
+        }
+    }
+
+    /**
+     * Rome always runs documents through XmlFixerReader, which is slow and
+     * also rewrites entities inside CDATA sections. For well-formed input
+     * only the CDATA rewriting is visible, so that is all healCdata redoes.
+     */
+    private RssFeed parse(ReplayableInputStream input, Reader reader, boolean healCdata) throws Exception {
+        XMLStreamReader xml = FACTORY.createXMLStreamReader(reader);
+        try {
+            while (xml.next() != XMLStreamConstants.START_ELEMENT) {
+                // skip prolog, comments and doctype
+            }
+            String root = xml.getLocalName();
+            if (!"rss".equals(root) && !"RDF".equals(root)) {
+                return fallback.parse(new XmlReader(input.replay()), descriptionMaxLength);
+            }
+            return new FeedReader(xml, healCdata, descriptionMaxLength).readFeed();
+        } finally {
+            xml.close();
+        }
+    }
+
+    /**
+     * Pull-parser state for one document
+     */
+    private static final class FeedReader {
+
+        private final XMLStreamReader xml;
+        private final boolean healCdata;
+        private final int descriptionMaxLength;
+
+        FeedReader(XMLStreamReader xml, boolean healCdata, int descriptionMaxLength) {
+            this.xml = xml;
+            this.healCdata = healCdata;
+            this.descriptionMaxLength = descriptionMaxLength;
+        }
+
+        private RssFeed readFeed() throws XMLStreamException {
+            RssFeed.RssFeedBuilder feed = RssFeed.builder();
+            List<Article> articles = new ArrayList<>();
+
+            while (xml.hasNext()) {
+                if (xml.next() != XMLStreamConstants.START_ELEMENT || !isRss()) {
+                    continue;
+                }
+                if ("channel".equals(xml.getLocalName())) {
+                    readChannel(feed, articles);
+                } else if ("item".equals(xml.getLocalName())) {
+                    // RSS 0.90 / 1.0 keep items next to the channel
+                    articles.add(readItem());
+                }
+            }
+            return feed.articles(articles).build();
+        }
+
+        private void readChannel(RssFeed.RssFeedBuilder feed, List<Article> articles) throws XMLStreamException {
+            while (nextChild()) {
+                if (!isRss()) {
+                    skipElement();
+                    continue;
+                }
+                switch (xml.getLocalName()) {
+                    case "title":
+                        feed.title(readText());
+                        break;
+                    case "description":
+                        feed.description(readText());
+                        break;
+                    case "link":
+                        feed.link(readText());
+                        break;
+                    case "language":
+                        feed.language(readText());
+                        break;
+                    case "item":
+                        articles.add(readItem());
+                        break;
+                    default:
+                        skipElement();
+                }
+            }
+        }
+
+        private Article readItem() throws XMLStreamException {
+            String title = null;
+            String link = null;
+            String guid = null;
+            String description = null;
+            String pubDate = null;
+            String dcDate = null;
+            String author = null;
+            String dcCreator = null;
+            String category = null;
+            String enclosureUrl = null;
+
+            while (nextChild()) {
+                String name = xml.getLocalName();
+                if (DC_NS.equals(xml.getNamespaceURI())) {
+                    switch (name) {
+                        case "creator":
+                            dcCreator = first(dcCreator, readText());
+                            break;
+                        case "date":
+                            dcDate = first(dcDate, readText());
+                            break;
+                        default:
+                            skipElement();
+                    }
+                    continue;
+                }
+                if (!isRss()) {
+                    skipElement();
+                    continue;
+                }
+                switch (name) {
+                    case "title":
+                        title = readText();
+                        break;
+                    case "link":
+                        link = readText();
+                        break;
+                    case "guid":
+                        boolean permaLink = !"false".equalsIgnoreCase(xml.getAttributeValue(null, "isPermaLink"));
+                        String value = readText();
+                        if (permaLink) {
+                            guid = value;
+                        }
+                        break;
+                    case "description":
+                        description = readText();
+                        break;
+                    case "pubDate":
+                        pubDate = readText();
+                        break;
+                    case "author":
+                        author = readText();
+                        break;
+                    case "category":
+                        category = first(category, readText());
+                        break;
+                    case "enclosure":
+                        enclosureUrl = first(enclosureUrl, xml.getAttributeValue(null, "url"));
+                        skipElement();
+                        break;
+                    default:
+                        skipElement();
+                }
+            }
+
+            EntrySanitizer.Sanitized sanitized = EntrySanitizer.sanitize(description, descriptionMaxLength);
+            String imageUrl = sanitized.imageUrl();
+            if (imageUrl == null) {
+                imageUrl = enclosureUrl != null ? enclosureUrl : "";
+            }
+            String date = pubDate != null ? pubDate : dcDate;
+            Long publishedAt = date != null
+                    ? RssEntries.toEpochMillis(DateParser.parseDate(date.trim(), Locale.US))
+                    : null;
+
+            return Article.builder()
+                    .title(title)
+                    .link(link != null ? link : guid)
+                    .description(sanitized.text())
+                    .pubDate(RssEntries.formatDate(publishedAt))
+                    .publishedAt(publishedAt)
+                    .imageUrl(imageUrl)
+                    .author(firstNonEmpty(dcCreator, author))
+                    .category(category)
+                    .build();
+        }
+
+        private boolean isRss() {
+            String ns = xml.getNamespaceURI();
+            return ns == null || ns.isEmpty() || RSS10_NS.equals(ns) || RSS090_NS.equals(ns);
+        }
+
+        /**
+         * Advance to the next child element of the current element, returning
+         * false once its end tag is reached
+         */
+        private boolean nextChild() throws XMLStreamException {
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    return true;
+                }
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Direct text content of the current element; nested elements are skipped
+         */
+        private String readText() throws XMLStreamException {
+            StringBuilder text = new StringBuilder();
+            int depth = 1;
+            while (depth > 0) {
+                switch (xml.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        depth++;
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        depth--;
+                        break;
+                    case XMLStreamConstants.CDATA:
+                        if (depth == 1) {
+                            text.append(healCdata ? healCdata(xml.getText()) : xml.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                        if (depth == 1) {
+                            text.append(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+                        }
+                        break;
+                    default:
+                }
+            }
+            return text.toString();
+        }
+
+        private void skipElement() throws XMLStreamException {
+            int depth = 1;
+            while (depth > 0) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+        }
+
+        private static String first(String current, String candidate) {
+            return current != null ? current : candidate;
+        }
+
+        private static String firstNonEmpty(String preferred, String other) {
+            if (preferred != null && !preferred.isEmpty()) {
+                return preferred;
+            }
+            return other != null ? other : "";
+        }
+    }
+
+    /**
+     * Apply XmlFixerReader's entity rewriting to the content of a CDATA section
+     */
+    private static String healCdata(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        try (Reader reader = new XmlFixerReader(new StringReader(CDATA_START + text + CDATA_END))) {
+            StringBuilder healed = new StringBuilder(text.length() + 16);
+            char[] buffer = new char[1024];
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                healed.append(buffer, 0, read);
+            }
+            return healed.substring(CDATA_START.length(), healed.length() - CDATA_END.length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        // Not coalescing, so CDATA sections stay distinguishable from text
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        if (factory.isPropertySupported(REPORT_CDATA)) {
+            factory.setProperty(REPORT_CDATA, true);
+        }
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Input that keeps what has been read from it, up to a limit, so it can
+     * be replayed from the start: the kept bytes followed by the rest of the
+     * underlying stream
+     */
+    private static final class ReplayableInputStream extends FilterInputStream {
+
+        private final int limit;
+        private ByteArrayOutputStream kept = new ByteArrayOutputStream();
+
+        ReplayableInputStream(InputStream in, int limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        boolean canReplay() {
+            return kept != null;
+        }
+
+        /**
+         * The whole document from the start; this stream must not be read
+         * any further
+         */
+        InputStream replay() throws IOException {
+            if (kept == null) {
+                throw new IOException("Document longer than the " + limit + " bytes kept for replay");
+            }
+            InputStream replay = new SequenceInputStream(new ByteArrayInputStream(kept.toByteArray()), in);
+            kept = null;
+            return replay;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                keep(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read > 0) {
+                keep(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Read rather than skip, so skipped bytes are kept too
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void keep(byte[] buffer, int offset, int length) {
+            if (kept == null) {
+                return;
+            }
+            if (kept.size() + length > limit) {
+                kept = null;
+                return;
+            }
+            kept.write(buffer, offset, length);
+        }
+    }
+}
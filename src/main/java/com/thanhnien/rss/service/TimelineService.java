@@ -0,0 +1,199 @@
+package com.thanhnien.rss.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.thanhnien.rss.config.CacheConfig;
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.RssFeed;
+import com.thanhnien.rss.model.TimelinePage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Latest news across every category: the cached category feeds merged
+ * newest first, with each link appearing once. The merged timeline is
+ * rebuilt only when one of the cached feeds has been replaced, and pages
+ * are located by binary search on an opaque cursor, so a page costs the
+ * same however deep it is.
+ */
+@Service
+public class TimelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimelineService.class);
+
+    /** Newest first; link breaks ties so the order is total */
+    private static final Comparator<Article> NEWEST_FIRST = Comparator
+            .comparing(Article::getPublishedAt, Comparator.reverseOrder())
+            .thenComparing(Article::getLink);
+
+    @Autowired
+    private RssService rssService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /** The feeds a timeline was merged from, by identity, and the result */
+    private record Timeline(List<RssFeed> sources, Article[] articles) {
+    }
+
+    private volatile Timeline timeline = new Timeline(List.of(), new Article[0]);
+
+    /**
+     * Get the page of the timeline after cursor (the first page when null)
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public TimelinePage getPage(String cursor, int limit) {
+        Article[] articles = currentTimeline().articles();
+        int from = cursor == null ? 0 : indexAfter(articles, decodeCursor(cursor));
+        int to = Math.min(from + limit, articles.length);
+
+        List<Article> page = Arrays.asList(articles).subList(from, to);
+        return TimelinePage.builder()
+                .articles(page)
+                .nextCursor(to < articles.length ? encodeCursor(articles[to - 1]) : null)
+                .build();
+    }
+
+    private Timeline currentTimeline() {
+        List<RssFeed> sources = cachedFeeds();
+        Timeline current = timeline;
+        if (!sameFeeds(current.sources(), sources)) {
+            current = new Timeline(sources, merge(sources));
+            timeline = current;
+            logger.debug("Rebuilt timeline from {} feeds: {} articles", sources.size(), current.articles().length);
+        }
+        return current;
+    }
+
+    /**
+     * The cached category feeds, read without recording hits or misses so
+     * the cache statistics reflect only real lookups
+     */
+    private List<RssFeed> cachedFeeds() {
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> cache = (Cache<Object, Object>)
+                cacheManager.getCache(CacheConfig.RSS_FEED_CACHE).getNativeCache();
+        List<RssFeed> feeds = new ArrayList<>();
+        for (String url : rssService.getCategoryUrls()) {
+            if (cache.policy().getIfPresentQuietly(url) instanceof RssFeed feed && feed.getArticles() != null) {
+                feeds.add(feed);
+            }
+        }
+        return feeds;
+    }
+
+    private static boolean sameFeeds(List<RssFeed> a, List<RssFeed> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i) != b.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Position of one feed's sorted articles during the merge
+     */
+    private static final class Source {
+        private final List<Article> articles;
+        private int next;
+
+        Source(List<Article> articles) {
+            this.articles = articles;
+        }
+
+        Article head() {
+            return articles.get(next);
+        }
+    }
+
+    /**
+     * k-way merge of the feeds, newest first, keeping the first (newest)
+     * article seen for each link. Articles without a publish time or link
+     * cannot be placed and are left out.
+     */
+    private static Article[] merge(List<RssFeed> feeds) {
+        PriorityQueue<Source> heads = new PriorityQueue<>(Math.max(1, feeds.size()),
+                (x, y) -> NEWEST_FIRST.compare(x.head(), y.head()));
+        int total = 0;
+        for (RssFeed feed : feeds) {
+            List<Article> placeable = new ArrayList<>(feed.getArticles().size());
+            for (Article article : feed.getArticles()) {
+                if (article.getPublishedAt() != null && article.getLink() != null) {
+                    placeable.add(article);
+                }
+            }
+            if (!placeable.isEmpty()) {
+                // Feeds are normally newest first already, so this is a linear check
+                placeable.sort(NEWEST_FIRST);
+                heads.add(new Source(placeable));
+                total += placeable.size();
+            }
+        }
+
+        List<Article> merged = new ArrayList<>(total);
+        Set<String> seen = new HashSet<>(total * 2);
+        while (!heads.isEmpty()) {
+            Source source = heads.poll();
+            Article article = source.head();
+            if (seen.add(article.getLink())) {
+                merged.add(article);
+            }
+            if (++source.next < source.articles.size()) {
+                heads.add(source);
+            }
+        }
+        return merged.toArray(new Article[0]);
+    }
+
+    /**
+     * Index of the first article ordered after the cursor position. Works
+     * even if the cursor's own article has since dropped out of the feeds.
+     */
+    private static int indexAfter(Article[] articles, Article position) {
+        int low = 0;
+        int high = articles.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (NEWEST_FIRST.compare(articles[mid], position) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String encodeCursor(Article last) {
+        String position = last.getPublishedAt() + "\n" + last.getLink();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Article decodeCursor(String cursor) {
+        String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int newline = position.indexOf('\n');
+        if (newline < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return Article.builder()
+                .publishedAt(Long.parseLong(position.substring(0, newline)))
+                .link(position.substring(newline + 1))
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.thanhnien.rss.service;
+
+/**
+ * Thrown when {@link OutboundGuard} refuses an outbound request: the host's
+ * circuit is open, too many requests are queued for it, or no slot freed
+ * up in time. Nothing was sent upstream.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final String host;
+
+    public UpstreamUnavailableException(String host, String reason) {
+        super("Upstream " + host + " unavailable: " + reason);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,221 @@
+package com.thanhnien.rss.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thanhnien.rss.config.ExecutorConfig;
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.RssFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Resolves the video URL of video articles in the background. Results are
+ * cached by article link, so a link is scraped once and reused across
+ * feeds and refreshes. Feeds are served immediately; once resolution
+ * completes, a copy of the feed with videoUrl filled in replaces it.
+ */
+@Service
+public class VideoUrlResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoUrlResolver.class);
+
+    /** Cached marker for pages that were scraped but have no video */
+    private static final String NO_VIDEO = "";
+
+    @Autowired
+    @Qualifier(ExecutorConfig.FAN_OUT_EXECUTOR)
+    private ExecutorService fanOutExecutor;
+
+    @Autowired
+    private OutboundGuard outboundGuard;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${rss.video.cache-ttl-ms:21600000}")
+    private long cacheTtlMs;
+
+    @Value("${rss.video.cache-max-size:20000}")
+    private long cacheMaxSize;
+
+    private Cache<String, String> resolved;
+
+    private final SingleFlight<String, String> inFlight = new SingleFlight<>();
+
+    @PostConstruct
+    public void init() {
+        resolved = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .build();
+    }
+
+    /**
+     * The feed with videoUrl filled in for video articles whose links are
+     * already resolved; the same feed when there are none
+     */
+    public RssFeed withResolved(RssFeed feed) {
+        return withVideoUrls(feed, link -> toVideoUrl(resolved.getIfPresent(link)));
+    }
+
+    /**
+     * Resolve the video articles of the feed that have no videoUrl yet.
+     * Completes with a copy of the feed carrying the video URLs found, or
+     * with null when nothing was found.
+     */
+    public CompletableFuture<RssFeed> resolvePending(RssFeed feed) {
+        Map<String, CompletableFuture<String>> pending = new HashMap<>();
+        for (Article article : feed.getArticles()) {
+            if (isVideoLink(article.getLink()) && article.getVideoUrl() == null) {
+                pending.computeIfAbsent(article.getLink(), this::resolve);
+            }
+        }
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.allOf(pending.values().toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            RssFeed enriched = withVideoUrls(feed, link -> {
+                CompletableFuture<String> videoUrl = pending.get(link);
+                return videoUrl != null ? videoUrl.join() : null;
+            });
+            return enriched != feed ? enriched : null;
+        });
+    }
+
+    private static RssFeed withVideoUrls(RssFeed feed, Function<String, String> videoUrls) {
+        List<Article> articles = null;
+        for (int i = 0; i < feed.getArticles().size(); i++) {
+            Article article = feed.getArticles().get(i);
+            if (!isVideoLink(article.getLink()) || article.getVideoUrl() != null) {
+                continue;
+            }
+            String videoUrl = videoUrls.apply(article.getLink());
+            if (videoUrl == null) {
+                continue;
+            }
+            if (articles == null) {
+                articles = new ArrayList<>(feed.getArticles());
+            }
+            articles.set(i, article.toBuilder().videoUrl(videoUrl).build());
+        }
+        return articles != null ? feed.toBuilder().articles(articles).build() : feed;
+    }
+
+    /**
+     * Resolve the video URL of an article page, or null if it has none
+     */
+    public CompletableFuture<String> resolve(String articleUrl) {
+        if (!isVideoLink(articleUrl)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String cached = resolved.getIfPresent(articleUrl);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(toVideoUrl(cached));
+        }
+        // The page is only handed to the executor once the guard admits it,
+        // so no pool thread waits on a busy or rate-limited host
+        return inFlight.execute(articleUrl, () -> outboundGuard.execute(articleUrl,
+                        () -> CompletableFuture.supplyAsync(() -> timedExtract(articleUrl), fanOutExecutor))
+                .handle((videoUrl, error) -> {
+                    if (error != null) {
+                        // Not cached, so the next refresh tries again
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        if (cause instanceof UpstreamUnavailableException) {
+                            logger.debug("Skipping video URL of {}: {}", articleUrl, cause.getMessage());
+                        } else {
+                            logger.error("Error extracting video URL from {}: {}", articleUrl, cause.getMessage());
+                        }
+                        return null;
+                    }
+                    resolved.put(articleUrl, videoUrl != null ? videoUrl : NO_VIDEO);
+                    return videoUrl;
+                }));
+    }
+
+    private String timedExtract(String articleUrl) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            String videoUrl = extractVideoUrl(articleUrl);
+            outcome = videoUrl != null ? "found" : "none";
+            return videoUrl;
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        } finally {
+            sample.stop(meterRegistry.timer("rss.video.extract", "outcome", outcome));
+        }
+    }
+
+    private static boolean isVideoLink(String articleUrl) {
+        // Only fetch for video category or if URL contains "video"
+        return articleUrl != null && articleUrl.contains("video");
+    }
+
+    private static String toVideoUrl(String cached) {
+        return cached == null || NO_VIDEO.equals(cached) ? null : cached;
+    }
+
+    /**
+     * Extract video URL from article page
+     */
+    private String extractVideoUrl(String articleUrl) throws IOException {
+        Document doc = Jsoup.connect(articleUrl)
+                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
+                .timeout(5000)
+                .get();
+
+        // Strategy 1: Look for video tag inside table.video video (Thanh Nien specific)
+        Element videoTag = doc.selectFirst("table.video video");
+        if (videoTag != null && videoTag.hasAttr("src")) {
+            return videoTag.attr("src");
+        }
+
+        // Strategy 2: Look for video tag inside td.vid video (Thanh Nien specific)
+        Element videoTag2 = doc.selectFirst("td.vid video");
+        if (videoTag2 != null && videoTag2.hasAttr("src")) {
+            return videoTag2.attr("src");
+        }
+
+        // Strategy 3: Look for any video tag with components
+        Element anyVideo = doc.selectFirst("video[src]");
+        if (anyVideo != null) {
+            return anyVideo.attr("src");
+        }
+
+        // Strategy 4: Open Graph video tag
+        Element ogVideo = doc.selectFirst("meta[property=og:video]");
+        if (ogVideo != null) {
+            return ogVideo.attr("content");
+        }
+
+        // Strategy 5: Look for video content div with data attributes
+        Element videoDiv = doc.selectFirst("div.cms-video-player");
+        if (videoDiv != null && videoDiv.hasAttr("data-src")) {
+            return videoDiv.attr("data-src");
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+package com.thanhnien.rss.service;
+
+import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlReader;
+import org.jsoup.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The single-pass sanitizer against the two regular expressions it
+ * replaced: same image, and the same text once character references are
+ * decoded, which the regex version left encoded.
+ */
+class EntrySanitizerTest {
+
+    private static final Pattern IMG = Pattern.compile("<img[^>]+src=[\"']([^\"']+)[\"']");
+
+    private static String regexText(String html) {
+        return Parser.unescapeEntities(html.replaceAll("<[^>]*>", "").trim(), false);
+    }
+
+    private static String regexImage(String html) {
+        Matcher matcher = IMG.matcher(html);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static void assertMatchesRegex(String html) {
+        EntrySanitizer.Sanitized sanitized = EntrySanitizer.sanitize(html, 0);
+        assertThat(sanitized.text()).as("text of %s", html).isEqualTo(regexText(html));
+        assertThat(sanitized.imageUrl()).as("image of %s", html).isEqualTo(regexImage(html));
+    }
+
+    @Test
+    void matchesRegexOnFixtureDescriptions() throws Exception {
+        List<String> descriptions;
+        try (InputStream in = EntrySanitizerTest.class.getResourceAsStream("/fixtures/thoi-su.rss")) {
+            descriptions = new SyndFeedInput().build(new XmlReader(in)).getEntries().stream()
+                    .map(entry -> entry.getDescription().getValue())
+                    .collect(Collectors.toList());
+        }
+
+        assertThat(descriptions).isNotEmpty();
+        descriptions.forEach(EntrySanitizerTest::assertMatchesRegex);
+    }
+
+    @Test
+    void matchesRegexOnEdgeCases() {
+        List.of(
+                "<p>Hello <b>world</b></p>",
+                "   padded text   ",
+                "a < b and c > d",
+                "unclosed <b tag at the end",
+                "<>empty tag",
+                "multi\n<a\nhref='x'>line</a> tag",
+                "<img src='single.jpg'>single quotes",
+                "<img src=\"\"><img src=\"second.jpg\">first has no src",
+                "<img src=bare.jpg><img src=\"quoted.jpg\">unquoted src",
+                "<img alt=\"a\" src=\"1.jpg\" data-src=\"2.jpg\">last src= wins",
+                "<imgsrc=\"x.jpg\">no space after img",
+                "<IMG SRC=\"upper.jpg\">upper case",
+                "text then <img src=\"late.jpg\"/> image",
+                "<img src=\"open.jpg\" never closed",
+                "Tom &amp; Jerry &quot;quoted&quot; &#8220;curly&#8221; &#x1EA1;",
+                "Stray & ampersand, &unknown; and &#xZZ;",
+                "").forEach(EntrySanitizerTest::assertMatchesRegex);
+    }
+
+    @Test
+    void truncatesAtWordBoundary() {
+        EntrySanitizer.Sanitized sanitized = EntrySanitizer.sanitize("<p>Giá vàng hôm nay tăng mạnh</p>", 12);
+
+        assertThat(sanitized.text()).isEqualTo("Giá vàng hôm…");
+        assertThat(sanitized.imageUrl()).isNull();
+    }
+}
@@ -0,0 +1,138 @@
+package com.thanhnien.rss.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.thanhnien.rss.config.CacheConfig;
+import com.thanhnien.rss.config.ExecutorConfig;
+import com.thanhnien.rss.config.HttpClientConfig;
+import com.thanhnien.rss.model.RssFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * FeedFetchEngine against a local stub server: compressed bodies and
+ * conditional revalidation.
+ */
+@SpringJUnitConfig(classes = {
+        FeedFetchEngine.class, VideoUrlResolver.class, OutboundGuard.class, RetryPolicy.class,
+        ArticleStore.class, RomeRssFeedParser.class,
+        HttpClientConfig.class, ExecutorConfig.class, CacheConfig.class,
+        FeedFetchEngineTest.TestConfig.class})
+class FeedFetchEngineTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final String FEED = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <rss version="2.0"><channel>
+            <title>Stub</title><link>https://thanhnien.vn/</link><description>Stub feed</description>
+            <item><title>First</title><link>https://thanhnien.vn/first.htm</link>
+            <description><![CDATA[<img src="https://img.example/1.jpg"/> One]]></description>
+            <pubDate>Sat, 18 Oct 2025 08:30:00 +0700</pubDate></item>
+            <item><title>Second</title><link>https://thanhnien.vn/second.htm</link>
+            <description>Two</description></item>
+            </channel></rss>
+            """;
+
+    @Configuration
+    static class TestConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    /** Requests seen by the stub: path, Accept-Encoding and If-None-Match */
+    private static final List<String> requests = new CopyOnWriteArrayList<>();
+    private static HttpServer server;
+
+    @Autowired
+    private FeedFetchEngine feedFetchEngine;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", FeedFetchEngineTest::serve);
+        server.start();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    private static void serve(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        requests.add(path + " " + acceptEncoding + " " + ifNoneMatch);
+
+        exchange.getResponseHeaders().set("ETag", ETAG);
+        if (ETAG.equals(ifNoneMatch)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        byte[] body = FEED.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        String encoding = path.contains("deflate") ? "deflate" : "gzip";
+        try (OutputStream out = "gzip".equals(encoding)
+                ? new GZIPOutputStream(compressed) : new DeflaterOutputStream(compressed)) {
+            out.write(body);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/rss+xml");
+        exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        exchange.sendResponseHeaders(200, compressed.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            compressed.writeTo(out);
+        }
+    }
+
+    private static String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    @Test
+    void decompressesGzipBodyThenRevalidatesWithEtag() {
+        RssFeed first = feedFetchEngine.fetch(url("/gzip.rss")).join();
+
+        assertThat(first.getTitle()).isEqualTo("Stub");
+        assertThat(first.getArticles()).extracting("title").containsExactly("First", "Second");
+        assertThat(first.getArticles().get(0).getImageUrl()).isEqualTo("https://img.example/1.jpg");
+        assertThat(first.getArticles().get(0).getPublishedAt()).isNotNull();
+
+        RssFeed second = feedFetchEngine.fetch(url("/gzip.rss")).join();
+
+        // A 304 is answered with the feed parsed from the last good response
+        assertThat(second).isSameAs(first);
+        assertThat(requests).filteredOn(request -> request.startsWith("/gzip.rss "))
+                .containsExactly("/gzip.rss gzip, deflate null", "/gzip.rss gzip, deflate " + ETAG);
+    }
+
+    @Test
+    void inflatesDeflateBody() {
+        RssFeed feed = feedFetchEngine.fetch(url("/deflate.rss")).join();
+
+        assertThat(feed.getTitle()).isEqualTo("Stub");
+        assertThat(feed.getArticles()).hasSize(2);
+    }
+}
@@ -0,0 +1,46 @@
+package com.thanhnien.rss.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Publish times shared by both parsers: epoch millis plus the displayed
+ * pubDate, which must stay correct when feeds are parsed concurrently.
+ */
+class RssEntriesTest {
+
+    @Test
+    void formatsPublishTimeInSystemZone() {
+        long publishedAt = LocalDateTime.of(2024, 10, 18, 8, 30)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        assertThat(RssEntries.toEpochMillis(new Date(publishedAt))).isEqualTo(publishedAt);
+        assertThat(RssEntries.formatDate(publishedAt)).isEqualTo("18/10/2024 08:30");
+    }
+
+    @Test
+    void missingPublishTimeIsNullAndBlank() {
+        assertThat(RssEntries.toEpochMillis(null)).isNull();
+        assertThat(RssEntries.formatDate(null)).isEmpty();
+    }
+
+    @Test
+    void formatsConsistentlyAcrossThreads() {
+        List<Long> times = IntStream.range(0, 10_000)
+                .mapToObj(i -> 1_700_000_000_000L + i * 3_600_000L)
+                .collect(Collectors.toList());
+        List<String> sequential = times.stream().map(RssEntries::formatDate).collect(Collectors.toList());
+
+        List<String> parallel = times.parallelStream().map(RssEntries::formatDate).collect(Collectors.toList());
+
+        assertThat(parallel).isEqualTo(sequential);
+    }
+}
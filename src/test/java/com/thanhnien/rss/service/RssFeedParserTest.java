@@ -0,0 +1,105 @@
+package com.thanhnien.rss.service;
+
+import com.thanhnien.rss.model.RssFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The StAX parser must produce exactly the feed Rome does, so rss.parser
+ * can be switched without changing any response.
+ */
+class RssFeedParserTest {
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = RssFeedParserTest.class.getResourceAsStream("/fixtures/" + name)) {
+            assertThat(in).as("fixture %s", name).isNotNull();
+            return in.readAllBytes();
+        }
+    }
+
+    private static RssFeed parse(RssFeedParser parser, byte[] document) throws Exception {
+        return parser.parse(new ByteArrayInputStream(document));
+    }
+
+    /** The category fixture with an HTML entity in its last item's title, which is not well-formed XML */
+    private static byte[] malformed() throws IOException {
+        String category = new String(fixture("thoi-su.rss"), StandardCharsets.UTF_8);
+        int lastItem = category.lastIndexOf("<title>");
+        return (category.substring(0, lastItem) + "<title>Gi&aacute; v&agrave;ng&nbsp;t&#259;ng</title>"
+                + category.substring(category.indexOf("</title>", lastItem) + "</title>".length()))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void staxMatchesRomeOnCategoryFeed() throws Exception {
+        byte[] document = fixture("thoi-su.rss");
+
+        RssFeed rome = parse(new RomeRssFeedParser(), document);
+        RssFeed stax = parse(new StaxRssFeedParser(), document);
+
+        assertThat(rome.getArticles()).isNotEmpty();
+        assertThat(stax).isEqualTo(rome);
+    }
+
+    @Test
+    void staxMatchesRomeWithTruncatedDescriptions() throws Exception {
+        byte[] document = fixture("thoi-su.rss");
+        RomeRssFeedParser romeParser = new RomeRssFeedParser();
+        StaxRssFeedParser staxParser = new StaxRssFeedParser();
+        ReflectionTestUtils.setField(romeParser, "descriptionMaxLength", 80);
+        ReflectionTestUtils.setField(staxParser, "descriptionMaxLength", 80);
+
+        RssFeed rome = parse(romeParser, document);
+        RssFeed stax = parse(staxParser, document);
+
+        assertThat(rome.getArticles()).allSatisfy(article ->
+                assertThat(article.getDescription().length()).isLessThanOrEqualTo(81));
+        assertThat(stax).isEqualTo(rome);
+    }
+
+    @Test
+    void staxHealsMalformedDocumentLikeRome() throws Exception {
+        byte[] document = malformed();
+
+        RssFeed rome = parse(new RomeRssFeedParser(), document);
+        RssFeed stax = parse(new StaxRssFeedParser(), document);
+
+        assertThat(rome.getArticles().get(rome.getArticles().size() - 1).getTitle()).isEqualTo("Giá vàng\u00a0tăng");
+        assertThat(stax).isEqualTo(rome);
+    }
+
+    @Test
+    void staxFailsWhenMalformedPastHealBuffer() throws Exception {
+        StaxRssFeedParser staxParser = new StaxRssFeedParser();
+        ReflectionTestUtils.setField(staxParser, "healBufferBytes", 4096);
+
+        assertThatThrownBy(() -> parse(staxParser, malformed())).isInstanceOf(XMLStreamException.class);
+    }
+
+    @Test
+    void staxHandsAtomToRome() throws Exception {
+        byte[] document = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <feed xmlns="http://www.w3.org/2005/Atom">
+                <title>Atom</title><id>urn:feed</id><updated>2025-10-18T08:30:00Z</updated>
+                <entry><title>First</title><id>urn:first</id><link href="https://thanhnien.vn/first.htm"/>
+                <updated>2025-10-18T08:30:00Z</updated><summary>One</summary></entry>
+                </feed>
+                """.getBytes(StandardCharsets.UTF_8);
+
+        RssFeed rome = parse(new RomeRssFeedParser(), document);
+        RssFeed stax = parse(new StaxRssFeedParser(), document);
+
+        assertThat(rome.getArticles()).extracting("title").containsExactly("First");
+        assertThat(stax).isEqualTo(rome);
+    }
+}
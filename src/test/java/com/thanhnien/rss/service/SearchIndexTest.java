@@ -0,0 +1,111 @@
+package com.thanhnien.rss.service;
+
+import com.thanhnien.rss.model.Article;
+import com.thanhnien.rss.model.RssFeed;
+import com.thanhnien.rss.model.SearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search over refreshed feeds: accent-insensitive matching, intersection
+ * of every query term, ranking and paging, and re-indexing on refresh.
+ */
+class SearchIndexTest {
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex();
+        ReflectionTestUtils.setField(index, "maxDocuments", 50_000);
+    }
+
+    private static Article article(String link, String title, String description, long publishedAt) {
+        return Article.builder()
+                .title(title)
+                .link("https://thanhnien.vn/" + link + ".htm")
+                .description(description)
+                .category("Thời sự")
+                .publishedAt(publishedAt)
+                .build();
+    }
+
+    private void refresh(Article... articles) {
+        index.onFeedRefreshed(new FeedRefreshedEvent("https://thanhnien.vn/rss/thoi-su.rss",
+                RssFeed.builder().title("Thời sự").articles(List.of(articles)).build()));
+    }
+
+    private static List<String> links(SearchResult result) {
+        return result.getArticles().stream().map(Article::getLink).collect(Collectors.toList());
+    }
+
+    private int tombstones() {
+        return (int) ReflectionTestUtils.getField(index, "deleted");
+    }
+
+    @Test
+    void matchesWithoutAccents() {
+        refresh(article("gia-vang", "Giá vàng tăng mạnh", "Đường phố đông đúc", 1L),
+                article("bao", "Bão số 3 đổ bộ", "Mưa lớn", 2L));
+
+        assertThat(links(index.search("gia vang", 0, 10))).containsExactly("https://thanhnien.vn/gia-vang.htm");
+        assertThat(links(index.search("GIÁ VÀNG", 0, 10))).containsExactly("https://thanhnien.vn/gia-vang.htm");
+        assertThat(links(index.search("duong pho", 0, 10))).containsExactly("https://thanhnien.vn/gia-vang.htm");
+        assertThat(links(index.search("thoi su", 0, 10))).hasSize(2);
+    }
+
+    @Test
+    void requiresEveryTerm() {
+        refresh(article("a", "Bão đổ bộ miền Trung", "", 1L),
+                article("b", "Bão đổ bộ miền Bắc", "", 2L),
+                article("c", "Miền Trung mưa lớn", "", 3L));
+
+        SearchResult result = index.search("bão miền trung", 0, 10);
+
+        assertThat(result.getTotal()).isEqualTo(1);
+        assertThat(links(result)).containsExactly("https://thanhnien.vn/a.htm");
+        assertThat(index.search("bão tuyết", 0, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void ranksTitleMatchesFirstThenNewestAndPages() {
+        refresh(article("old", "Kinh tế quý ba", "", 1L),
+                article("body", "Tin tổng hợp", "Kinh tế phục hồi", 5L),
+                article("new", "Kinh tế quý bốn", "", 3L),
+                article("mid", "Kinh tế tháng mười", "", 2L));
+
+        SearchResult first = index.search("kinh te", 0, 2);
+        SearchResult second = index.search("kinh te", 2, 2);
+
+        assertThat(first.getTotal()).isEqualTo(4);
+        assertThat(links(first)).containsExactly(
+                "https://thanhnien.vn/new.htm", "https://thanhnien.vn/mid.htm");
+        assertThat(second.getTotal()).isEqualTo(4);
+        assertThat(links(second)).containsExactly(
+                "https://thanhnien.vn/old.htm", "https://thanhnien.vn/body.htm");
+    }
+
+    @Test
+    void reindexesOnlyChangedArticles() {
+        refresh(article("a", "Giá xăng giảm", "Từ 15 giờ", 1L), article("b", "Giá vàng tăng", "", 2L));
+
+        // A refresh parses fresh copies of the same articles
+        refresh(article("a", "Giá xăng giảm", "Từ 15 giờ", 1L), article("b", "Giá vàng tăng", "", 2L));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(tombstones()).isZero();
+
+        refresh(article("a", "Giá xăng giảm mạnh", "Từ 15 giờ", 1L), article("b", "Giá vàng tăng", "", 2L));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(tombstones()).isEqualTo(1);
+        assertThat(links(index.search("manh", 0, 10))).containsExactly("https://thanhnien.vn/a.htm");
+        assertThat(index.search("xang", 0, 10).getTotal()).isEqualTo(1);
+    }
+}